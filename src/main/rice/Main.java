@@ -4,13 +4,26 @@ package main.rice;
 
 import main.rice.basegen.BaseSetGenerator;
 import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.metrics.Metrics;
 import main.rice.parse.ConfigFile;
 import main.rice.parse.ConfigFileParser;
 import main.rice.parse.InvalidConfigException;
+import main.rice.test.ShardResults;
+import main.rice.test.ShardSpec;
 import main.rice.test.TestCase;
+import main.rice.test.TestResults;
 import main.rice.test.Tester;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -19,36 +32,251 @@ import java.util.Set;
  */
 public class Main {
     /**
-     * Compute the concise test set
+     * The command line usage, listing the options that may follow the three required
+     * arguments
+     */
+    public static final String USAGE = String.join("\n",
+            "usage: Main CONFIG IMPL_DIR SOLUTION [--name=value ...]",
+            "  --jobs=N               test up to N implementations (or ranges of tests) "
+                    + "concurrently",
+            "  --timeout=MS           kill (and fail) any test that runs for longer than MS "
+                    + "milliseconds",
+            "  --max-memory=BYTES     fail any test on which an implementation uses more "
+                    + "memory than this",
+            "  --max-cpu=SECONDS      fail any test on which an implementation uses more "
+                    + "CPU time than this",
+            "  --expected-cache=DIR   reuse the expected results cached in DIR by earlier "
+                    + "runs",
+            "  --verdict-cache=DIR    only re-run the implementations that changed since "
+                    + "their verdicts were cached in DIR",
+            "  --lazy-cover=true      only run the tests that the set cover needs "
+                    + "(ignores --verdict-cache)",
+            "  --bytecode-cache=DIR   compile each implementation into DIR once, until it "
+                    + "changes",
+            "  --binary-expected=true store the expected results in an indexed binary "
+                    + "table",
+            "  --isolate=true         write the generated files to a private temporary "
+                    + "directory rather than IMPL_DIR",
+            "  --metrics=text|json    print the metrics of the run to stderr",
+            "  --seed=N               generate the same random tests in every run",
+            "  --shard=K/N            run only the K-th of N shards, isolated, and write "
+                    + "its results to --shard-output",
+            "  --shard-by=cases|files split the shards along the tests (the default) or "
+                    + "the implementations",
+            "  --shard-output=FILE    the file to which a shard writes its results",
+            "  --merge=FILE,...       choose the concise test set from the shards' results "
+                    + "without running anything",
+            "Every shard, and the merge, must be given the same config file and seed "
+                    + "(sharded runs use a seed of 0 by default).");
+
+    /**
+     * Compute the concise test set, or print the usage if the required arguments are
+     * missing
      * @param args an array; the command line argument
      * @throws IOException if an I/O operation fails
      * @throws InvalidConfigException if the config file is of invalid format
      * @throws InterruptedException if the process is interrupted
      */
     public static void main(String[] args) throws IOException, InvalidConfigException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println(USAGE);
+            return;
+        }
         System.out.println(generateTests(args));
     }
 
     /**
-     * An helper for main(); generate the concise test set
+     * An helper for main(); generate the concise test set. The first three arguments are
+     * the config file, the directory of implementations, and the solution; they may be
+     * followed by options of the form --name=value, which are listed in USAGE
      * @param args an array; the command line arguments
-     * @return the concise test set
+     * @return the concise test set, or an empty set when running a single shard
      * @throws IOException if an I/O operation fails
      * @throws InvalidConfigException if the config file is of invalid format
      * @throws InterruptedException if the process is interrupted
      */
     public static Set<TestCase> generateTests(String[] args) throws IOException, InvalidConfigException, InterruptedException {
+        return generateTests(args, new Metrics());
+    }
+
+    /**
+     * A helper for main(); generate the concise test set as generateTests(args) does,
+     * recording the metrics of the run in the given registry: how long it takes to parse
+     * the config file ("main.parse"), generate the base test set ("main.generate"),
+     * compute the expected results ("main.expected"), run the tests ("main.run"), and
+     * choose the concise test set ("main.cover"; with --lazy-cover=true, this includes
+     * running the tests), along with everything that the Tester records
+     * @param args an array; the command line arguments
+     * @param metrics the registry in which to record metrics
+     * @return the concise test set, or an empty set when running a single shard
+     * @throws IOException if an I/O operation fails
+     * @throws InvalidConfigException if the config file is of invalid format
+     * @throws InterruptedException if the process is interrupted
+     */
+    public static Set<TestCase> generateTests(String[] args, Metrics metrics) throws IOException, InvalidConfigException, InterruptedException {
+        long parseStart = metrics.timer("main.parse").start();
         // create a new ConfigFileParser
         ConfigFileParser parser = new ConfigFileParser();
         // read the content of the file in the command into a config file
         ConfigFile contents = parser.parse(parser.readFile(args[0]));
+        metrics.timer("main.parse").stop(parseStart);
         // construct a new BaseSetGenerator based on the parsed config file
         BaseSetGenerator base = new BaseSetGenerator(contents.getNodes(), contents.getNumRand());
-        Tester tester = new Tester(contents.getFuncName(), args[2], args[1], base.genBaseSet());
-        tester.computeExpectedResults();
-        // return the concise test set
-        return ConciseSetGenerator.setCover(tester.runTests());
+        // read the optional settings that follow the three required arguments
+        Map<String, String> options = parseOptions(args);
+        int jobs = Integer.parseInt(options.getOrDefault("jobs", "1"));
+        ShardSpec shard = null;
+        if (options.containsKey("shard")) {
+            shard = ShardSpec.parse(options.get("shard"), ShardSpec.Axis.valueOf(
+                    options.getOrDefault("shard-by", "cases").toUpperCase()));
+        }
+        boolean sharded = (shard != null) || options.containsKey("merge");
+        // every shard must generate the same base test set, so sharded runs are seeded
+        if (sharded || options.containsKey("seed")) {
+            base.setSeed(Long.parseLong(options.getOrDefault("seed", "0")));
+        }
+        // generate the base test set, timing it
+        long generateStart = metrics.timer("main.generate").start();
+        List<TestCase> baseSet = base.genBaseSet();
+        if (sharded) {
+            // put the base test set in an order that doesn't depend on how it was built
+            baseSet.sort(Comparator.comparing(TestCase::getFingerprint));
+        }
+        metrics.timer("main.generate").stop(generateStart);
+        // merge the results of every shard, if requested, rather than running anything
+        if (options.containsKey("merge")) {
+            List<ShardResults> shards = new ArrayList<>();
+            for (String path : options.get("merge").split(",")) {
+                shards.add(ShardResults.read(Path.of(path)));
+            }
+            long coverStart = metrics.timer("main.cover").start();
+            Set<TestCase> conciseSet = ConciseSetGenerator.setCover(
+                    ShardResults.merge(baseSet, shards));
+            metrics.timer("main.cover").stop(coverStart);
+            dumpMetrics(options, metrics);
+            return conciseSet;
+        }
+        // a shard split along the test cases only runs its slice of them
+        List<TestCase> tests = baseSet;
+        if (shard != null) {
+            if (!options.containsKey("shard-output")) {
+                throw new IllegalArgumentException("--shard requires --shard-output");
+            }
+            if (Boolean.parseBoolean(options.get("lazy-cover"))) {
+                throw new IllegalArgumentException("--shard can't be used with --lazy-cover");
+            }
+            if (shard.axis() == ShardSpec.Axis.CASES) {
+                tests = baseSet.subList(shard.start(baseSet.size()), shard.end(baseSet.size()));
+            }
+        }
+        Tester tester = new Tester(contents.getFuncName(), args[2], args[1], tests, jobs);
+        tester.setMetrics(metrics);
+        tester.setTimeout(Long.parseLong(options.getOrDefault("timeout", "0")));
+        tester.setExpectedResultsCache(options.get("expected-cache"));
+        tester.setVerdictCache(options.get("verdict-cache"));
+        tester.setMemoryLimit(Long.parseLong(options.getOrDefault("max-memory", "0")));
+        tester.setCpuLimit(Integer.parseInt(options.getOrDefault("max-cpu", "0")));
+        tester.setBytecodeCache(options.get("bytecode-cache"));
+        tester.setBinaryExpectedResults(
+                Boolean.parseBoolean(options.get("binary-expected")));
+        if (shard != null && shard.axis() == ShardSpec.Axis.FILES) {
+            tester.setFileShard(shard);
+        }
+        // shards may run side by side on one machine, so each one is isolated
+        Path workDir = null;
+        if (shard != null || Boolean.parseBoolean(options.get("isolate"))) {
+            workDir = Files.createTempDirectory("tester");
+            tester.setWorkDir(workDir.toString());
+        }
+        try {
+            long expectedStart = metrics.timer("main.expected").start();
+            tester.computeExpectedResults();
+            metrics.timer("main.expected").stop(expectedStart);
+            // compute the concise test set, running tests on demand if requested
+            Set<TestCase> conciseSet;
+            if (Boolean.parseBoolean(options.get("lazy-cover"))) {
+                long coverStart = metrics.timer("main.cover").start();
+                conciseSet = ConciseSetGenerator.lazySetCover(tester);
+                metrics.timer("main.cover").stop(coverStart);
+            } else {
+                long runStart = metrics.timer("main.run").start();
+                TestResults results = tester.runTests();
+                metrics.timer("main.run").stop(runStart);
+                if (shard != null) {
+                    // write this shard's results; the concise test set is chosen once
+                    // every shard's results have been merged
+                    ShardResults.of(shard, baseSet.size(), tester.getNumImplFiles(), results)
+                            .write(Path.of(options.get("shard-output")));
+                    dumpMetrics(options, metrics);
+                    return Collections.emptySet();
+                }
+                long coverStart = metrics.timer("main.cover").start();
+                conciseSet = ConciseSetGenerator.setCover(results);
+                metrics.timer("main.cover").stop(coverStart);
+            }
+            dumpMetrics(options, metrics);
+            return conciseSet;
+        } finally {
+            if (workDir != null) {
+                deleteDirectory(workDir);
+            }
+        }
+
+    }
+
+    /**
+     * A helper for generateTests(); print the metrics of the run to stderr, if the
+     * --metrics option asks for them
+     * @param options the options given to generateTests()
+     * @param metrics the registry holding the metrics of the run
+     */
+    private static void dumpMetrics(Map<String, String> options, Metrics metrics) {
+        String format = options.get("metrics");
+        if ("text".equals(format)) {
+            System.err.print(metrics.toText());
+        } else if ("json".equals(format)) {
+            System.err.println(metrics.toJson().toString(2));
+        }
+    }
+
+    /**
+     * A helper for generateTests(); delete a directory along with everything in it
+     * @param dir the directory to be deleted
+     * @throws IOException if a deletion operation fails
+     */
+    private static void deleteDirectory(Path dir) throws IOException {
+        File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                // delete subdirectories (such as the pycache) recursively
+                if (file.isDirectory()) {
+                    deleteDirectory(file.toPath());
+                } else {
+                    Files.delete(file.toPath());
+                }
+            }
+        }
+        Files.delete(dir);
+    }
 
+    /**
+     * A helper for generateTests(); parse the options of the form --name=value that
+     * follow the three required command line arguments
+     * @param args an array; the command line arguments
+     * @return a map from each option's name to its value
+     * @throws IllegalArgumentException if an option is not of the form --name=value
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 3; i < args.length; i++) {
+            // split each option into its name and its value
+            int equals = args[i].indexOf('=');
+            if (!args[i].startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("invalid option: " + args[i]);
+            }
+            options.put(args[i].substring(2, equals), args[i].substring(equals + 1));
+        }
+        return options;
     }
 
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import main.rice.node.APyNode;
 import main.rice.obj.APyObj;
 import main.rice.test.TestCase;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A class that is used to generate a "base" set of test cases, comprised of the union
@@ -12,6 +14,12 @@ import java.util.*;
  */
 public class BaseSetGenerator {
 
+    /**
+     * The smallest number of exhaustive test cases that genExTests() generates in
+     * parallel; smaller spaces aren't worth the overhead.
+     */
+    private static final long PARALLEL_THRESHOLD = 4096;
+
     /**
      * The nodes that will be used to perform generation.
      */
@@ -27,6 +35,11 @@ public class BaseSetGenerator {
      */
     private Set<TestCase> baseSet;
 
+    /**
+     * The space of exhaustive test cases, which is built the first time it's needed.
+     */
+    private CartesianProduct exSpace;
+
     /**
      * Constructor for a BaseSetGenerator, which initializes the fields.
      *
@@ -36,14 +49,31 @@ public class BaseSetGenerator {
     public BaseSetGenerator(List<APyNode<?>> nodes, int numRand) {
         this.nodes = nodes;
         this.numRand = numRand;
-        this.baseSet = new HashSet<>();
+        this.baseSet = new LinkedHashSet<>();
+    }
+
+    /**
+     * Seeds the random generation of every node (each with a seed of its own, derived
+     * from the given one), so that genRandTests() and genBaseSet() always produce the
+     * same test cases for the same seed.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        Random nodeSeeds = new Random(seed);
+        for (APyNode<?> node : this.nodes) {
+            node.setSeed(nodeSeeds.nextLong());
+        }
     }
 
     /**
      * Generates a the base test set (the union of the semi-exhaustive and random test
      * sets) according to the type and domain specifications in the input list of nodes.
      * Each output test case encapsulates a list of arguments (APyObjs), where the i-th
-     * argument is typified by the i-th element in nodes.
+     * argument is typified by the i-th element in nodes. The exhaustive test cases come
+     * first, in index order (see getExTest()), followed by the random ones in the order
+     * in which they were generated, so the list is the same whether or not the
+     * exhaustive test cases were generated in parallel.
      *
      * @return the base test set (as a List, so that we can use indices in the Tester)
      */
@@ -57,28 +87,95 @@ public class BaseSetGenerator {
 
     /**
      * Exbaustively generates a set of all valid test cases within the exhaustive
-     * domains stored within the nodes.
+     * domains stored within the nodes. The set iterates over its test cases in index
+     * order (see getExTest()).
      *
      * @return a set of valid test cases according to the given specifications
      */
     public Set<TestCase> genExTests() {
-        // For each parameter, generate the set of all possible arguments
-        List<Set<? extends APyObj>> possibleArgs = new ArrayList<>();
-        for (APyNode<?> node : this.nodes) {
-            Set<? extends APyObj> args = node.genExVals();
-            possibleArgs.add(args);
-        }
+        // Add each combination of arguments to the set as it's produced, so that no
+        // intermediate list of combinations is ever built. Large spaces are split into
+        // ranges of indices that are generated (and deduplicated) in parallel, with the
+        // partial sets merged in order at the end; either way, the set holds the same test
+        // cases in the same order.
+        CartesianProduct space = this.getExSpace();
+        Stream<TestCase> tests = (space.size() >= PARALLEL_THRESHOLD)
+                ? space.parallelStream() : space.stream();
+        return tests.collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Lazily generates every valid test case within the exhaustive domains stored within
+     * the nodes, one at a time; unlike genExTests(), this never holds all of the test
+     * cases in memory at once, unless the caller collects them.
+     *
+     * @return a stream of the valid test cases according to the given specifications
+     */
+    public Stream<TestCase> streamExTests() {
+        return this.getExSpace().stream();
+    }
 
-        // Generate all possible combinations of arguments (selecting one valid argument
-        // for each parameter)
-        List<List<APyObj>> combos = generateArgCombos(possibleArgs, 0);
-        Set<TestCase> tests = new HashSet<>();
+    /**
+     * Lazily generates the exhaustive test cases whose indices lie within the given
+     * range, without generating any of the test cases before it. Splitting the indices
+     * from 0 to getExSpaceSize() into contiguous ranges lets separate workers (or
+     * machines) each generate only their own slice of the exhaustive test cases.
+     *
+     * @param from the index of the first test case (inclusive)
+     * @param to   the index after the last test case (exclusive)
+     * @return a stream of the test cases in the range
+     * @throws IndexOutOfBoundsException if the range isn't within the exhaustive space
+     */
+    public Stream<TestCase> streamExTests(long from, long to) {
+        return this.getExSpace().stream(from, to);
+    }
 
-        // Encapsulate the results within TestCase objects and return
-        for (List<APyObj> combo : combos) {
-            tests.add(new TestCase(combo));
+    /**
+     * Returns the exact number of test cases in the exhaustive space, i.e. the product of
+     * the sizes of the nodes' exhaustive domains. This counts every combination of
+     * arguments, so it is only the size of the set returned by genExTests() if no two
+     * combinations are equal as test cases.
+     *
+     * @return the number of exhaustive test cases
+     * @throws ArithmeticException if there are more than Long.MAX_VALUE of them
+     */
+    public long getExSpaceSize() {
+        return this.getExSpace().size();
+    }
+
+    /**
+     * Generates the exhaustive test case with the given index, without generating any
+     * of the others. Test cases are indexed in a fixed order: the first argument varies
+     * slowest and the last argument fastest, each ranging over its node's exhaustive
+     * domain in that domain's iteration order.
+     *
+     * @param index the index of the test case, from 0 to getExSpaceSize() - 1
+     * @return the test case
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public TestCase getExTest(long index) {
+        return this.getExSpace().get(index);
+    }
+
+    /**
+     * Returns the space of exhaustive test cases: the cartesian product of the
+     * exhaustive domains of the nodes. The space is built once, so that every index
+     * refers to the same test case for the life of this generator.
+     *
+     * @return the product of the exhaustive domains, whose test cases are generated on
+     * demand
+     */
+    private CartesianProduct getExSpace() {
+        if (this.exSpace == null) {
+            // For each parameter, generate the set of all possible arguments
+            List<Set<? extends APyObj>> possibleArgs = new ArrayList<>();
+            for (APyNode<?> node : this.nodes) {
+                Set<? extends APyObj> args = node.genExVals();
+                possibleArgs.add(args);
+            }
+            this.exSpace = new CartesianProduct(possibleArgs);
         }
-        return tests;
+        return this.exSpace;
     }
 
     /**
@@ -119,47 +216,4 @@ public class BaseSetGenerator {
         // but not exhaustive.)
         return randSet;
     }
-
-    /**
-     * Helper function for generateTest; a recursive algorithm for generating all possible
-     * combinations of arguments across multiple parameters. Uses an additional input,
-     * index, to keep track of which arguments have already been combined.
-     *
-     * @param possibleArgs a list of sets, where the i-th set contains all possible
-     *                     arguments (as PyObjs) for the i-th parameter
-     * @param index        the next index within possibleArgs for which we need to
-     *                     generate all possible combinations
-     * @return all possible combinations of args, where the i-th element in each sublist
-     * within the returned list is an element of the i-th set in possibleArgs
-     */
-    private static List<List<APyObj>> generateArgCombos(
-            List<Set<? extends APyObj>> possibleArgs, int index) {
-
-        // BASE CASE: index is greater than the last index in possibleArgs ->
-        // no args remain -> return one empty combination
-        if (index == possibleArgs.size()) {
-            List<List<APyObj>> combos = new ArrayList<>();
-            combos.add(new ArrayList<APyObj>());
-            return combos;
-        }
-
-        // RECURSIVE CASE: index is within the bounds of possibleArgs ->
-        // Get all combinations of the later args
-        List<List<APyObj>> laterCombos = generateArgCombos(possibleArgs, index + 1);
-
-        // Get all possible args for the current index
-        Set<? extends APyObj> currArgs = possibleArgs.get(index);
-
-        // For every existing combination, add every possible arg in currArs
-        List<List<APyObj>> allCombos = new ArrayList<>();
-        for (APyObj arg : currArgs) {
-            for (List<APyObj> combo : laterCombos) {
-                // Make sure to clone so as to not mutate the original
-                List<APyObj> comboClone = new ArrayList<>(combo);
-                comboClone.add(0, arg);
-                allCombos.add(comboClone);
-            }
-        }
-        return allCombos;
-    }
-}
\ No newline at end of file
+}
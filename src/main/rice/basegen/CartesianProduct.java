@@ -0,0 +1,316 @@
+package main.rice.basegen;
+
+import main.rice.obj.APyObj;
+import main.rice.test.TestCase;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The cartesian product of the domains of a function's parameters, i.e. every test case
+ * that selects one argument from each parameter's domain. Test cases are produced lazily,
+ * one at a time, so the product is never held in memory as a whole; only the domains
+ * themselves are. Test cases are produced in lexicographic order of the positions of
+ * their arguments within the domains, so the last argument varies fastest.
+ * <p>
+ * This order also gives every test case an index, and the test case at any index can be
+ * built directly, by reading the index as a mixed-radix number whose digits are the
+ * positions of the arguments (the radix of each digit being the size of its domain).
+ * This lets the product be split into contiguous ranges of indices that are generated
+ * independently, e.g. by separate workers, without generating anything before them.
+ */
+public class CartesianProduct implements Iterable<TestCase> {
+
+    /**
+     * The domain of each parameter, in parameter order.
+     */
+    private final List<List<APyObj>> domains;
+
+    /**
+     * The number of test cases in the product.
+     */
+    private final long size;
+
+    /**
+     * Constructor for a CartesianProduct; copies each domain, so that later changes to
+     * the given collections don't affect the product.
+     *
+     * @param domains a list where the i-th element holds every possible argument for the
+     *                i-th parameter
+     * @throws ArithmeticException if the product holds more than Long.MAX_VALUE test
+     *                             cases
+     */
+    public CartesianProduct(List<? extends Collection<? extends APyObj>> domains) {
+        this.domains = new ArrayList<>();
+        long size = 1;
+        for (Collection<? extends APyObj> domain : domains) {
+            this.domains.add(new ArrayList<>(domain));
+            size = Math.multiplyExact(size, (long) domain.size());
+        }
+        this.size = size;
+    }
+
+    /**
+     * Returns the exact number of test cases in the product, which is the product of the
+     * sizes of the domains.
+     *
+     * @return the number of test cases
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Builds the test case at the given index, without building any of the others.
+     *
+     * @param index the index of the test case
+     * @return the test case
+     * @throws IndexOutOfBoundsException if the index is negative, or not less than the
+     *                                   size of the product
+     */
+    public TestCase get(long index) {
+        return this.buildTestCase(this.unrank(index));
+    }
+
+    /**
+     * Returns an iterator over every test case in the product, each of which is built
+     * only when it is requested.
+     *
+     * @return an iterator over the test cases
+     */
+    @Override
+    public Iterator<TestCase> iterator() {
+        return this.iterator(0, this.size);
+    }
+
+    /**
+     * Returns an iterator over the test cases whose indices lie within the given range,
+     * each of which is built only when it is requested. Nothing before the start of the
+     * range is generated.
+     *
+     * @param from the index of the first test case (inclusive)
+     * @param to   the index after the last test case (exclusive)
+     * @return an iterator over the test cases in the range
+     * @throws IndexOutOfBoundsException if the range isn't within the product
+     */
+    public Iterator<TestCase> iterator(long from, long to) {
+        return Spliterators.iterator(this.spliterator(from, to));
+    }
+
+    /**
+     * Returns a spliterator over every test case in the product, which splits its range
+     * of indices in half (so that a parallel stream divides the work evenly).
+     *
+     * @return a spliterator over the test cases
+     */
+    @Override
+    public Spliterator<TestCase> spliterator() {
+        return this.spliterator(0, this.size);
+    }
+
+    /**
+     * Returns a spliterator over the test cases whose indices lie within the given range,
+     * which splits the range in half.
+     *
+     * @param from the index of the first test case (inclusive)
+     * @param to   the index after the last test case (exclusive)
+     * @return a spliterator over the test cases in the range
+     * @throws IndexOutOfBoundsException if the range isn't within the product
+     */
+    public Spliterator<TestCase> spliterator(long from, long to) {
+        if (from < 0 || from > to || to > this.size) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to +
+                    ") is not within a product of size " + this.size);
+        }
+        return new ProductSpliterator(from, to);
+    }
+
+    /**
+     * Returns a sequential stream over every test case in the product, each of which is
+     * built only when it is consumed.
+     *
+     * @return a stream of the test cases
+     */
+    public Stream<TestCase> stream() {
+        return this.stream(0, this.size);
+    }
+
+    /**
+     * Returns a sequential stream over the test cases whose indices lie within the given
+     * range, each of which is built only when it is consumed.
+     *
+     * @param from the index of the first test case (inclusive)
+     * @param to   the index after the last test case (exclusive)
+     * @return a stream of the test cases in the range
+     * @throws IndexOutOfBoundsException if the range isn't within the product
+     */
+    public Stream<TestCase> stream(long from, long to) {
+        return StreamSupport.stream(this.spliterator(from, to), false);
+    }
+
+    /**
+     * Returns a parallel stream over every test case in the product. Each worker thread
+     * builds the test cases of its own ranges of indices, starting each range by
+     * unranking its first index.
+     *
+     * @return a parallel stream of the test cases
+     */
+    public Stream<TestCase> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
+
+    /**
+     * Converts the index of a test case into the positions of its arguments within the
+     * domains, treating the index as a mixed-radix number.
+     *
+     * @param index the index of the test case
+     * @return the position of each argument within its domain
+     * @throws IndexOutOfBoundsException if the index is negative, or not less than the
+     *                                   size of the product
+     */
+    private int[] unrank(long index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("index " + index +
+                    " is not within a product of size " + this.size);
+        }
+
+        // The last position is the least significant digit
+        int[] positions = new int[this.domains.size()];
+        for (int i = positions.length - 1; i >= 0; i--) {
+            int radix = this.domains.get(i).size();
+            positions[i] = (int) (index % radix);
+            index /= radix;
+        }
+        return positions;
+    }
+
+    /**
+     * Builds the test case whose arguments lie at the given positions within the
+     * domains.
+     *
+     * @param positions the position of each argument within its domain
+     * @return the test case
+     */
+    private TestCase buildTestCase(int[] positions) {
+        List<APyObj> args = new ArrayList<>(positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            args.add(this.domains.get(i).get(positions[i]));
+        }
+        return new TestCase(args);
+    }
+
+    /**
+     * A spliterator over a range of the product, which steps through it like an odometer:
+     * it keeps the position of the current argument within each domain, and advances
+     * the last position, carrying into the ones before it whenever a domain is
+     * exhausted. Only the first test case of the range is unranked, when it is first
+     * needed, so splitting is cheap.
+     */
+    private class ProductSpliterator implements Spliterator<TestCase> {
+
+        /**
+         * The smallest range that is worth splitting further.
+         */
+        private static final long MIN_SPLIT = 2;
+
+        /**
+         * The index of the next test case.
+         */
+        private long from;
+
+        /**
+         * The index after the last test case in the range.
+         */
+        private final long to;
+
+        /**
+         * The position within each domain of the next test case's arguments, or null if
+         * the next test case hasn't been unranked yet.
+         */
+        private int[] positions = null;
+
+        /**
+         * Constructor for a ProductSpliterator over a range of the product, which must be
+         * within it.
+         *
+         * @param from the index of the first test case (inclusive)
+         * @param to   the index after the last test case (exclusive)
+         */
+        ProductSpliterator(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Builds the next test case, if there is one, and passes it to the given action.
+         *
+         * @param action the action to be performed on the test case
+         * @return true if there was a test case; false otherwise
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super TestCase> action) {
+            if (this.from >= this.to) {
+                return false;
+            }
+            if (this.positions == null) {
+                this.positions = CartesianProduct.this.unrank(this.from);
+            }
+            TestCase test = CartesianProduct.this.buildTestCase(this.positions);
+
+            // Advance the odometer, starting with the last position, unless this was the
+            // last test case in the range
+            this.from++;
+            if (this.from < this.to) {
+                int i = this.positions.length - 1;
+                while (++this.positions[i] == CartesianProduct.this.domains.get(i).size()) {
+                    this.positions[i] = 0;
+                    i--;
+                }
+            }
+            action.accept(test);
+            return true;
+        }
+
+        /**
+         * Splits off the first half of the remaining range, unless it is too small to be
+         * worth splitting.
+         *
+         * @return a spliterator over the first half, or null if the range wasn't split
+         */
+        @Override
+        public Spliterator<TestCase> trySplit() {
+            if (this.to - this.from < MIN_SPLIT) {
+                return null;
+            }
+            long mid = this.from + (this.to - this.from) / 2;
+            Spliterator<TestCase> prefix = new ProductSpliterator(this.from, mid);
+            this.from = mid;
+            this.positions = null;
+            return prefix;
+        }
+
+        /**
+         * Returns the exact number of test cases left in the range.
+         *
+         * @return the number of test cases left
+         */
+        @Override
+        public long estimateSize() {
+            return this.to - this.from;
+        }
+
+        /**
+         * Returns the characteristics of this spliterator: its test cases come in a
+         * fixed order, and it (and every spliterator split from it) knows exactly how
+         * many there are.
+         *
+         * @return the characteristics
+         */
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
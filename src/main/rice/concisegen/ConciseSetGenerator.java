@@ -2,7 +2,9 @@ package main.rice.concisegen;
 
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
+import main.rice.test.Tester;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -16,6 +18,22 @@ import java.util.Set;
  */
 public class ConciseSetGenerator {
 
+    /**
+     * The state of a (test case, implementation) cell whose verdict is not yet known.
+     */
+    private static final byte UNKNOWN = 0;
+
+    /**
+     * The state of a (test case, implementation) cell where the implementation passed.
+     */
+    private static final byte PASS = 1;
+
+    /**
+     * The state of a (test case, implementation) cell where the test case caught an
+     * error in (or timed out on) the implementation.
+     */
+    private static final byte FAIL = 2;
+
     /**
      * A greedy approximation of the set cover algorithm. Given a set of incorrect
      * implementations (S), a set of test cases (B), and list "mapping" each test case
@@ -71,4 +89,91 @@ public class ConciseSetGenerator {
         // Return the hitting set
         return hittingSet;
     }
-}
\ No newline at end of file
+
+    /**
+     * The same greedy approximation of the set cover algorithm as setCover(), but which
+     * runs test cases on demand instead of requiring the results of running every test
+     * case on every implementation up front. For each test case, the number of
+     * heretofore-uncovered files that are not yet known to pass it is an upper bound on
+     * the number of new files it catches. Each round, the test case with the greatest
+     * upper bound is examined; if any of its cells are unknown, it is run on just those
+     * files and the round is repeated, and otherwise its bound is exact and no other test
+     * case can catch more, so it is selected. Test cases whose bounds drop to zero (e.g.
+     * because they are known to catch nothing new) are never run again, and the search
+     * stops as soon as every bound is zero. Ties are broken in favor of the lowest index,
+     * as in setCover(), so the result is the same as setCover(tester.runTests()).
+     * (The exception is an implementation that mutates its own globals in BATCHED mode,
+     * which shares its module across a batch: each round here runs a batch of one.)
+     * <p>
+     * The Tester's expected results must already have been computed. Its verdict cache,
+     * if any, is not consulted.
+     *
+     * @param tester the Tester used to run the test cases
+     * @return a set of test cases that is an approximately minimal set covering
+     * @throws IOException if the test cases cannot be run
+     * @throws InterruptedException if the process is interrupted
+     */
+    public static Set<TestCase> lazySetCover(Tester tester)
+            throws IOException, InterruptedException {
+        List<TestCase> tests = tester.getTests();
+        int numFiles = tester.prepareTests();
+        try {
+            // cells[i][j] holds what is known about running the i-th test on the j-th file
+            byte[][] cells = new byte[tests.size()][numFiles];
+            Set<Integer> coveredFiles = new HashSet<>();
+            HashSet<TestCase> hittingSet = new HashSet<>();
+
+            while (true) {
+                // Find the test case with the greatest upper bound on the number of
+                // heretofore-uncovered files that it catches
+                int maxBound = 0;
+                int caseOfMaxBound = -1;
+                for (int caseIndex = 0; caseIndex < tests.size(); caseIndex++) {
+                    int bound = 0;
+                    for (int file = 0; file < numFiles; file++) {
+                        if (!coveredFiles.contains(file) && cells[caseIndex][file] != PASS) {
+                            bound++;
+                        }
+                    }
+                    if (bound > maxBound) {
+                        maxBound = bound;
+                        caseOfMaxBound = caseIndex;
+                    }
+                }
+
+                // Every uncovered file passes every test case, so we're done
+                if (caseOfMaxBound < 0) {
+                    return hittingSet;
+                }
+
+                // If the bound isn't exact yet, run the test case on the uncovered files
+                // whose verdicts are unknown, and then reconsider
+                byte[] row = cells[caseOfMaxBound];
+                Set<Integer> unknownFiles = new HashSet<>();
+                for (int file = 0; file < numFiles; file++) {
+                    if (!coveredFiles.contains(file) && row[file] == UNKNOWN) {
+                        unknownFiles.add(file);
+                    }
+                }
+                if (!unknownFiles.isEmpty()) {
+                    Set<Integer> caught = tester.runTestCase(caseOfMaxBound, unknownFiles);
+                    for (int file : unknownFiles) {
+                        row[file] = caught.contains(file) ? FAIL : PASS;
+                    }
+                    continue;
+                }
+
+                // Otherwise, select the test case and cover the files that it catches
+                for (int file = 0; file < numFiles; file++) {
+                    if (row[file] == FAIL) {
+                        coveredFiles.add(file);
+                    }
+                }
+                hittingSet.add(tests.get(caseOfMaxBound));
+            }
+        } finally {
+            // Clean up the pycache that was created
+            tester.cleanUpTests();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package main.rice.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that counts occurrences of an event, such as test cases that timed out. A
+ * Counter may be incremented by any number of threads at once.
+ */
+public class Counter {
+
+    /**
+     * The running count.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Adds one to this counter.
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * Adds the given amount to this counter.
+     *
+     * @param amount the amount to be added
+     */
+    public void add(long amount) {
+        this.count.add(amount);
+    }
+
+    /**
+     * Returns the current count.
+     *
+     * @return the sum of everything added to this counter
+     */
+    public long get() {
+        return this.count.sum();
+    }
+}
@@ -0,0 +1,132 @@
+package main.rice.metrics;
+
+/**
+ * A metric that summarizes the distribution of a quantity, such as the number of bytes
+ * of output produced by each process. Besides the count, sum, minimum and maximum of the
+ * recorded values, a Histogram keeps a count of the values in each power-of-two bucket,
+ * from which percentiles are estimated; the estimate of a percentile is the upper bound
+ * of the bucket that holds it, so it is never low by more than a factor of two. Values
+ * may be recorded by any number of threads at once.
+ */
+public class Histogram {
+
+    /**
+     * The number of buckets: bucket 0 holds zero, and bucket i (for i > 0) holds the
+     * values in [2^(i-1), 2^i).
+     */
+    private static final int NUM_BUCKETS = 64;
+
+    /**
+     * The number of recorded values in each bucket.
+     */
+    private final long[] buckets = new long[NUM_BUCKETS];
+
+    /**
+     * The number of recorded values.
+     */
+    private long count = 0;
+
+    /**
+     * The sum of the recorded values.
+     */
+    private long sum = 0;
+
+    /**
+     * The smallest recorded value, or Long.MAX_VALUE if none has been recorded.
+     */
+    private long min = Long.MAX_VALUE;
+
+    /**
+     * The largest recorded value, or zero if none has been recorded.
+     */
+    private long max = 0;
+
+    /**
+     * Records a value; negative values are recorded as zero.
+     *
+     * @param value the value to be recorded
+     */
+    public synchronized void record(long value) {
+        value = Math.max(value, 0);
+        this.buckets[NUM_BUCKETS - Long.numberOfLeadingZeros(value)]++;
+        this.count++;
+        this.sum += value;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the sum of the recorded values
+     */
+    public synchronized long getSum() {
+        return this.sum;
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return the smallest recorded value, or zero if none has been recorded
+     */
+    public synchronized long getMin() {
+        return (this.count == 0) ? 0 : this.min;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the largest recorded value, or zero if none has been recorded
+     */
+    public synchronized long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean of the recorded values, or zero if none has been recorded
+     */
+    public synchronized double getMean() {
+        return (this.count == 0) ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * Estimates a percentile of the recorded values.
+     *
+     * @param percentile the percentile to be estimated, between 0 and 100
+     * @return an upper bound on the percentile (which is at most twice the true value,
+     * and never more than the largest recorded value), or zero if no value has been
+     * recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (this.count == 0) {
+            return 0;
+        }
+
+        // Find the bucket holding the value with the requested rank
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += this.buckets[i];
+            if (seen >= rank) {
+                long upperBound = (i == 0) ? 0 : (1L << i) - 1;
+                return Math.max(this.getMin(), Math.min(upperBound, this.max));
+            }
+        }
+        return this.max;
+    }
+}
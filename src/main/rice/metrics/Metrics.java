@@ -0,0 +1,156 @@
+package main.rice.metrics;
+
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A registry of named metrics (counters, timers, and histograms), which are created the
+ * first time they are looked up. Metrics can be queried individually while a run is in
+ * progress, and the whole registry can be dumped as text or JSON at the end of it. A
+ * Metrics registry may be shared by any number of threads.
+ */
+public class Metrics {
+
+    /**
+     * The metrics in this registry, keyed by name.
+     */
+    private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter with the given name, creating it if it doesn't exist.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     * @throws IllegalArgumentException if a metric of another kind has the name
+     */
+    public Counter counter(String name) {
+        return this.lookUp(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it if it doesn't exist.
+     *
+     * @param name the name of the histogram
+     * @return the histogram
+     * @throws IllegalArgumentException if a metric of another kind has the name
+     */
+    public Histogram histogram(String name) {
+        return this.lookUp(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * Returns the timer with the given name, creating it if it doesn't exist.
+     *
+     * @param name the name of the timer
+     * @return the timer
+     * @throws IllegalArgumentException if a metric of another kind has the name
+     */
+    public Timer timer(String name) {
+        return this.lookUp(name, Timer.class, Timer::new);
+    }
+
+    /**
+     * Returns every metric in this registry.
+     *
+     * @return a map from the name of each metric to the metric (a Counter, Histogram, or
+     * Timer), sorted by name
+     */
+    public Map<String, Object> getAll() {
+        return new TreeMap<>(this.metrics);
+    }
+
+    /**
+     * Dumps every metric in this registry as text, one line per metric in order of
+     * name. Each line holds the name and kind of the metric, followed by its value (for
+     * a counter) or its count, sum, mean, minimum, estimated median, estimated 99th
+     * percentile and maximum (for a histogram or timer; a timer's are in nanoseconds).
+     *
+     * @return the text
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> entry : this.getAll().entrySet()) {
+            sb.append(entry.getKey());
+            if (entry.getValue() instanceof Counter counter) {
+                sb.append(" counter value=").append(counter.get());
+            } else if (entry.getValue() instanceof Histogram histogram) {
+                sb.append((histogram instanceof Timer) ? " timer" : " histogram");
+                for (Map.Entry<String, Object> stat : summarize(histogram).entrySet()) {
+                    sb.append(' ').append(stat.getKey()).append('=').append(stat.getValue());
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Dumps every metric in this registry as a JSON object, which maps the name of each
+     * metric to an object holding its kind ("counter", "histogram", or "timer") and the
+     * same values as toText().
+     *
+     * @return the JSON object
+     */
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Object> entry : this.getAll().entrySet()) {
+            JSONObject metric = new JSONObject();
+            if (entry.getValue() instanceof Counter counter) {
+                metric.put("kind", "counter");
+                metric.put("value", counter.get());
+            } else if (entry.getValue() instanceof Histogram histogram) {
+                metric.put("kind", (histogram instanceof Timer) ? "timer" : "histogram");
+                for (Map.Entry<String, Object> stat : summarize(histogram).entrySet()) {
+                    metric.put(stat.getKey(), stat.getValue());
+                }
+            }
+            json.put(entry.getKey(), metric);
+        }
+        return json;
+    }
+
+    /**
+     * Summarizes a histogram for dumping.
+     *
+     * @param histogram the histogram to be summarized
+     * @return a map from the name of each statistic to its value, in dumping order
+     */
+    private static Map<String, Object> summarize(Histogram histogram) {
+        // Take a consistent snapshot, since values may be recorded concurrently
+        synchronized (histogram) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getCount());
+            stats.put("sum", histogram.getSum());
+            stats.put("mean", Math.round(histogram.getMean()));
+            stats.put("min", histogram.getMin());
+            stats.put("p50", histogram.getPercentile(50));
+            stats.put("p99", histogram.getPercentile(99));
+            stats.put("max", histogram.getMax());
+            return stats;
+        }
+    }
+
+    /**
+     * Returns the metric with the given name, creating it if it doesn't exist.
+     *
+     * @param name    the name of the metric
+     * @param kind    the class of the metric
+     * @param factory creates the metric if it doesn't exist
+     * @param <T>     the type of the metric
+     * @return the metric
+     * @throws IllegalArgumentException if a metric of another kind has the name
+     */
+    private <T> T lookUp(String name, Class<T> kind, Supplier<T> factory) {
+        Object metric = this.metrics.computeIfAbsent(name, key -> factory.get());
+        if (metric.getClass() != kind) {
+            throw new IllegalArgumentException("metric " + name + " is not a " +
+                    kind.getSimpleName());
+        }
+        return kind.cast(metric);
+    }
+}
@@ -0,0 +1,29 @@
+package main.rice.metrics;
+
+/**
+ * A Histogram of durations, in nanoseconds, such as the time taken to start each
+ * process.
+ */
+public class Timer extends Histogram {
+
+    /**
+     * Returns the current time, from which a duration can later be recorded by stop().
+     *
+     * @return the value of System.nanoTime()
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time elapsed since the given start time.
+     *
+     * @param startNanos the value returned by start()
+     * @return the elapsed time in nanoseconds
+     */
+    public long stop(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        this.record(elapsed);
+        return elapsed;
+    }
+}
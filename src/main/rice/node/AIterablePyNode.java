@@ -44,8 +44,27 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
      */
     @Override
     public Set<OuterType> genExVals() {
-        Set<InnerType> innerVals = this.leftChild.genExVals();
-        return this.genPerms(this.exDomainMax(), innerVals);
+        return this.genPerms(this.exDomainMax(), this.genInnerExVals());
+    }
+
+    /**
+     * Returns an iterator over the same objects as genExVals(), each of which is built
+     * only when it is requested; only the valid elements are generated up front. For
+     * lists, tuples, and strings, no object is produced twice.
+     *
+     * @return an iterator over the exhaustive domain
+     */
+    public Iterator<OuterType> iterExVals() {
+        return new PermIterator(this.genInnerExVals());
+    }
+
+    /**
+     * Generates all valid elements of the objects in the exhaustive domain.
+     *
+     * @return a set of InnerTypes comprising the exhaustive domain of the elements
+     */
+    protected Set<InnerType> genInnerExVals() {
+        return this.leftChild.genExVals();
     }
 
     /**
@@ -87,6 +106,19 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
      */
     protected abstract OuterType genObj(List<InnerType> innerVals);
 
+    /**
+     * Returns whether the generated objects are sequences, in which the order of the
+     * elements matters and elements may repeat (as in lists, tuples, and strings); if
+     * not, the objects are collections of distinct elements in no particular order (as
+     * in sets). Decides whether the exhaustive domain is enumerated as permutations with
+     * repetition or as combinations.
+     *
+     * @return true if the generated objects are sequences; false otherwise
+     */
+    protected boolean isSequence() {
+        return true;
+    }
+
     /**
      * Helper function that generates all permutations of multiple sizes.
      *
@@ -96,47 +128,148 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
      * @return all permutations of innerVals, according to the input specifications
      */
     protected Set<OuterType> genPerms(int currSize, Set<InnerType> innerVals) {
-        // BASE CASE: size 0 -> return a set containing only the empty list
-        if (currSize == 0) {
-            Set<OuterType> perms = new HashSet<>();
-            perms.add(this.genObj(new ArrayList<>()));
-            return perms;
+        Set<OuterType> perms = new HashSet<>();
+        Iterator<OuterType> iter = new PermIterator(innerVals);
+        while (iter.hasNext()) {
+            OuterType perm = iter.next();
+            if (perm.getValue().size() <= currSize) {
+                perms.add(perm);
+            }
+        }
+        return perms;
+    }
+
+    /**
+     * An iterator over every object whose size is in the exhaustive domain, from the
+     * smallest size to the largest. Each object is described by the positions of its
+     * elements within the list of elements, which act as the digits of an odometer
+     * whose last digit turns fastest. For sequences, every digit ranges over every
+     * position, producing every permutation with repetition; otherwise, the digits are
+     * kept strictly increasing, producing each combination of distinct elements exactly
+     * once, so the work done is proportional to the number of objects produced. Only the
+     * emitted objects are allocated; the digits are updated in place.
+     */
+    private class PermIterator implements Iterator<OuterType> {
+
+        /**
+         * The elements from which the objects are built.
+         */
+        private final List<InnerType> elems;
+
+        /**
+         * Whether the objects are sequences (see isSequence()).
+         */
+        private final boolean sequence;
+
+        /**
+         * The distinct sizes in the exhaustive domain, in increasing order.
+         */
+        private final int[] lengths;
+
+        /**
+         * The position of each element of the next object within elems; only the first
+         * lengths[lengthIndex] digits are used.
+         */
+        private final int[] digits;
+
+        /**
+         * The index within lengths of the size of the next object, or lengths.length if
+         * there are no more objects.
+         */
+        private int lengthIndex;
+
+        /**
+         * Constructor for a PermIterator.
+         *
+         * @param innerVals the elements from which the objects are built
+         */
+        PermIterator(Collection<InnerType> innerVals) {
+            this.elems = new ArrayList<>(innerVals);
+            this.sequence = isSequence();
+            this.lengths = exDomain.stream().mapToInt(Number::intValue).filter(
+                    length -> length >= 0).distinct().sorted().toArray();
+            this.digits = new int[(this.lengths.length == 0) ? 0 :
+                    this.lengths[this.lengths.length - 1]];
+            this.lengthIndex = -1;
+            this.nextLength();
         }
 
-        // RECURSIVE CASE:
-        // Get all permutations that are of length size - 1
-        Set<OuterType> oneShorter = this.genPerms(currSize - 1, innerVals);
-        Set<OuterType> perms = new HashSet<>();
+        /**
+         * Returns whether there is another object.
+         *
+         * @return true if there is another object; false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return this.lengthIndex < this.lengths.length;
+        }
 
-        // Iterate over each shorter "list" (could actually be a PyListObj, PySetObj, PyTupleObj,
-        // or PyStringObj)
-        for (OuterType listObj : oneShorter) {
+        /**
+         * Returns the next object.
+         *
+         * @return the next object
+         * @throws NoSuchElementException if there are no more objects
+         */
+        @Override
+        public OuterType next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
 
-            // Only keep around the smaller version if we wanted that size too
-            int listSize = listObj.getValue().size();
-            if (this.exDomain.contains(listSize)) {
-                perms.add(listObj);
+            // Build the current object, then move on to the one after it
+            int length = this.lengths[this.lengthIndex];
+            List<InnerType> innerVals = new ArrayList<>(length);
+            for (int pos = 0; pos < length; pos++) {
+                innerVals.add(this.elems.get(this.digits[pos]));
             }
+            this.advance(length);
+            return genObj(innerVals);
+        }
 
-            // For efficiency, let's avoid generating duplicates by only adding to the largest
-            // elements of shorterPerms
-            if (listSize < currSize - 1) {
-                continue;
+        /**
+         * Moves the digits on to the object after the current one, moving on to the next
+         * size once every object of the current size has been produced.
+         *
+         * @param length the size of the current object
+         */
+        private void advance(int length) {
+            // Turn the last digit that hasn't reached its limit, then reset the digits
+            // after it to their lowest values; for combinations, digit pos can be at most
+            // elems.size() - (length - pos), leaving room for the digits after it
+            for (int pos = length - 1; pos >= 0; pos--) {
+                int limit = this.sequence ? this.elems.size() :
+                        this.elems.size() - (length - pos) + 1;
+                if (++this.digits[pos] < limit) {
+                    for (int after = pos + 1; after < length; after++) {
+                        this.digits[after] = this.sequence ? 0 : this.digits[after - 1] + 1;
+                    }
+                    return;
+                }
             }
 
-            // Construct all new lists that result from adding val (a possible inner val) to listObj
-            for (InnerType val : innerVals) {
-                // Make sure to copt the internal value so as not to mutate the original
-                List<InnerType> copy = new ArrayList<>(listObj.getValue());
-                copy.add(val);
-                OuterType obj = this.genObj(copy);
+            // Every digit reached its limit, so the current size is done
+            this.nextLength();
+        }
 
-                // Only keep this around if it's the correct size (necessary for PySetObj)
-                if (obj.getValue().size() == currSize) {
-                    perms.add(obj);
+        /**
+         * Moves on to the next size for which there are objects (skipping, e.g., the
+         * sizes of combinations larger than the number of elements), and sets the digits
+         * to describe its first object.
+         */
+        private void nextLength() {
+            this.lengthIndex++;
+            while (this.lengthIndex < this.lengths.length) {
+                int length = this.lengths[this.lengthIndex];
+                boolean empty = this.sequence ? (length > 0 && this.elems.isEmpty()) :
+                        length > this.elems.size();
+                if (!empty) {
+                    for (int pos = 0; pos < length; pos++) {
+                        this.digits[pos] = this.sequence ? 0 : pos;
+                    }
+                    return;
                 }
+                this.lengthIndex++;
             }
         }
-        return perms;
     }
-}
\ No newline at end of file
+}
@@ -46,6 +46,29 @@ public abstract class APyNode<ObjType extends APyObj> {
         return null;
     }
 
+    /**
+     * Seeds the RNG used for random generation by this node and (with seeds derived from
+     * the given one) by its child nodes, so that the same seed always produces the same
+     * sequence of random values.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.rand.setSeed(seed);
+
+        // Give each child a seed of its own, so that the children don't produce the same
+        // values as this node
+        Random childSeeds = new Random(seed);
+        long leftSeed = childSeeds.nextLong();
+        long rightSeed = childSeeds.nextLong();
+        if (this.getLeftChild() != null) {
+            this.getLeftChild().setSeed(leftSeed);
+        }
+        if (this.getRightChild() != null) {
+            this.getRightChild().setSeed(rightSeed);
+        }
+    }
+
     /**
      * Sets the exhaustive domain to the input list of numbers.
      *
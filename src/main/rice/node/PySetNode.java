@@ -56,4 +56,17 @@ public class PySetNode<InnerType extends APyObj> extends AIterablePyNode<
     protected PySetObj<InnerType> genObj(List<InnerType> innerVals) {
         return new PySetObj<>(new HashSet<>(innerVals));
     }
+
+    /**
+     * Returns whether the generated objects are sequences. Sets hold distinct elements in
+     * no particular order, so their exhaustive domain is enumerated directly as the
+     * combinations of the child's values of each size, rather than as sequences that are
+     * collapsed into sets.
+     *
+     * @return false, as sets are not sequences
+     */
+    @Override
+    protected boolean isSequence() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -24,21 +24,16 @@ public class PyStringNode extends AIterablePyNode<PyStringObj, PyCharObj> {
     }
 
     /**
-     * Generates all valid PyStringObjs within the exhaustive domain; begins by generating
-     * all valid characters, and then finds all permutations of them of valid length (as
-     * constrained by the exhaustive domain).
+     * Generates all valid characters of the PyStringObjs in the exhaustive domain, which
+     * are the characters in the character domain.
      *
-     * @return a set of PyStringObjs comprising the exhaustive domain
+     * @return a set of PyCharObjs comprising the character domain
      */
     @Override
-    public Set<PyStringObj> genExVals() {
-        // Convert charDomain from a String to a list of each individual character
+    protected Set<PyCharObj> genInnerExVals() {
+        // Convert charDomain from a String to a set of each individual character
         // in that string
-        Set<PyCharObj> innerVals =
-                new HashSet<>(new PyStringObj(this.charDomain).getValue());
-
-        // Get all permutations in the form of a list of lists of characters
-        return this.genPerms(this.exDomainMax(), innerVals);
+        return new HashSet<>(new PyStringObj(this.charDomain).getValue());
     }
 
     /**
@@ -0,0 +1,40 @@
+package main.rice.test;
+
+/**
+ * The strategies that a Tester can use to execute test cases on the buggy
+ * implementations. All modes produce the same TestResults for well-behaved
+ * implementations; they differ only in how many Python processes are started.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Starts a fresh Python process (running the wrapper) for every (test case,
+     * implementation) pair. Every test observes a freshly-imported implementation.
+     */
+    PROCESS_PER_TEST,
+
+    /**
+     * Keeps a pool of long-lived Python workers, each of which imports every
+     * implementation at most once and then evaluates test cases sent to it over a framed
+     * stdin/stdout protocol. Because an implementation's module is shared across test
+     * cases, an implementation that mutates its own globals may observe state left over
+     * from earlier test cases.
+     */
+    WORKER_POOL,
+
+    /**
+     * Starts one Python process per implementation, which imports the implementation
+     * once and runs every test case, reporting a compact pass/fail vector. As with
+     * WORKER_POOL, an implementation's module is shared across test cases.
+     */
+    BATCHED,
+
+    /**
+     * Starts one Python process per implementation, which imports the implementation
+     * once and then forks a child process to run each test case. Every test observes a
+     * fresh copy of the already-imported implementation, as in PROCESS_PER_TEST, but
+     * only pays the cost of a fork rather than of starting an interpreter. Requires a
+     * platform that supports fork() (i.e. not Windows).
+     */
+    FORK_SERVER
+}
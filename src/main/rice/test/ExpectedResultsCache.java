@@ -0,0 +1,205 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persistent, content-addressed cache of the results of running test cases on a
+ * reference solution. Each (solution, function) pair gets its own file within the cache
+ * directory, named after a hash of the solution's source and the function's name, so
+ * changing the solution automatically starts a fresh cache. Within that file, each
+ * result is keyed by a hash of its test case's fingerprint.
+ * <p>
+ * The file is an append-only log of records, each of which consists of a 16-byte key, a
+ * four-byte big-endian length, and that many bytes of UTF-8 result text. The whole log is
+ * loaded into memory when the cache is opened, so lookups never touch the disk.
+ */
+public class ExpectedResultsCache {
+
+    /**
+     * The version of the cache format (and of the footer that produces the results);
+     * bumping this invalidates every existing cache file.
+     */
+    private static final String FORMAT_VERSION = "1";
+
+    /**
+     * The number of bytes of each test case's hash that are used as its key.
+     */
+    private static final int KEY_BYTES = 16;
+
+    /**
+     * The file holding the results for this cache's solution and function.
+     */
+    private final Path cachePath;
+
+    /**
+     * The cached results, keyed by the hashes of their test cases' fingerprints.
+     */
+    private final Map<ByteBuffer, String> results;
+
+    /**
+     * Constructor for an ExpectedResultsCache; loads every result that was previously
+     * cached for the given solution and function, creating the cache directory if it
+     * doesn't exist.
+     *
+     * @param cacheDirPath   the path to the directory holding the cache files
+     * @param solutionSource the source of the reference solution, excluding the footer
+     *                       written by the Tester
+     * @param funcName       the name of the function under test
+     * @throws IOException if the cache directory or file cannot be accessed
+     */
+    public ExpectedResultsCache(String cacheDirPath, String solutionSource, String funcName)
+            throws IOException {
+        Path cacheDir = Path.of(cacheDirPath);
+        Files.createDirectories(cacheDir);
+        String solutionKey = HexFormat.of().formatHex(sha256(
+                FORMAT_VERSION + "\0" + funcName + "\0" + solutionSource));
+        this.cachePath = cacheDir.resolve(solutionKey + ".cache");
+        this.results = new HashMap<>();
+        this.load();
+    }
+
+    /**
+     * Returns the cached result of running the given test case, if any.
+     *
+     * @param test the test case to be looked up
+     * @return the cached result, or null if the test case has not been cached
+     */
+    public String get(TestCase test) {
+        return this.results.get(key(test));
+    }
+
+    /**
+     * Returns the number of results in this cache.
+     *
+     * @return the number of cached results
+     */
+    public int size() {
+        return this.results.size();
+    }
+
+    /**
+     * Adds the given results to this cache, both in memory and on disk. Results that are
+     * empty (i.e. the solution crashed or hung) or already cached are skipped, so that a
+     * transient failure is retried on the next run.
+     *
+     * @param tests   the test cases that were run
+     * @param results a list where the i-th element is the result of running the i-th
+     *                test case
+     * @throws IOException if the cache file cannot be written to
+     */
+    public void putAll(List<TestCase> tests, List<String> results) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(bytes);
+        for (int i = 0; i < tests.size(); i++) {
+            ByteBuffer key = key(tests.get(i));
+            String result = results.get(i);
+            if (result.isEmpty() || this.results.containsKey(key)) {
+                continue;
+            }
+            this.results.put(key, result);
+
+            byte[] text = result.getBytes(StandardCharsets.UTF_8);
+            records.write(key.array());
+            records.writeInt(text.length);
+            records.write(text);
+        }
+        if (bytes.size() == 0) {
+            return;
+        }
+
+        // Append all of the new records in one write, holding a lock so that records
+        // from concurrent runs can't interleave
+        try (FileChannel channel = FileChannel.open(this.cachePath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Loads every record from the cache file (if it exists) into memory. A truncated
+     * final record, left behind by a run that died mid-write, is ignored.
+     *
+     * @throws IOException if the cache file cannot be read
+     */
+    private void load() throws IOException {
+        if (!Files.exists(this.cachePath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(this.cachePath)))) {
+            while (true) {
+                byte[] key = in.readNBytes(KEY_BYTES);
+                if (key.length < KEY_BYTES) {
+                    break;
+                }
+                int length = in.readInt();
+                byte[] text = in.readNBytes(length);
+                if (text.length < length) {
+                    break;
+                }
+                this.results.put(ByteBuffer.wrap(key),
+                        new String(text, StandardCharsets.UTF_8));
+            }
+        } catch (EOFException e) {
+            // The final record's length was cut off; everything before it was loaded
+        }
+    }
+
+    /**
+     * Computes the key under which the result of the given test case is stored.
+     *
+     * @param test the test case
+     * @return the truncated hash of the test case's fingerprint
+     */
+    private static ByteBuffer key(TestCase test) {
+        return ByteBuffer.wrap(Arrays.copyOf(sha256(test.getFingerprint()), KEY_BYTES));
+    }
+
+    /**
+     * Computes the SHA-256 hash of the UTF-8 encoding of the given text.
+     *
+     * @param text the text to be hashed
+     * @return the hash
+     */
+    static byte[] sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the SHA-256 hash of the given bytes.
+     *
+     * @param bytes the bytes to be hashed
+     * @return the hash
+     */
+    static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package main.rice.test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compact table of the outcomes of running each test case on each buggy
+ * implementation. The table is stored file by file, and a file's storage is only
+ * allocated once an outcome is recorded for it, so files that are never run cost
+ * nothing and no storage is sized by the product of both dimensions. Each cell of an
+ * allocated file takes a byte for its kind and a long for its elapsed time;
+ * exception types are only stored for the cells that have one, and each distinct type
+ * name is stored once. Cells whose test case wasn't run (e.g. because of fail-fast mode)
+ * are empty.
+ */
+public class OutcomeTable {
+
+    /**
+     * The number of test cases.
+     */
+    private final int numCases;
+
+    /**
+     * The number of implementations.
+     */
+    private final int numFiles;
+
+    /**
+     * The outcomes recorded for each implementation, or null for an implementation that
+     * has none.
+     */
+    private final FileOutcomes[] files;
+
+    /**
+     * The distinct exception type names, so that each is only stored once.
+     */
+    private final Map<String, String> typeNames;
+
+    /**
+     * Constructor for an empty OutcomeTable.
+     *
+     * @param numCases the number of test cases
+     * @param numFiles the number of implementations
+     * @throws IllegalArgumentException if either number is negative
+     */
+    public OutcomeTable(int numCases, int numFiles) {
+        if (numCases < 0 || numFiles < 0) {
+            throw new IllegalArgumentException("table size must not be negative");
+        }
+        this.numCases = numCases;
+        this.numFiles = numFiles;
+        this.files = new FileOutcomes[numFiles];
+        this.typeNames = new HashMap<>();
+    }
+
+    /**
+     * Returns the number of test cases in this table.
+     *
+     * @return the number of test cases
+     */
+    public int getNumCases() {
+        return this.numCases;
+    }
+
+    /**
+     * Returns the number of implementations in this table.
+     *
+     * @return the number of implementations
+     */
+    public int getNumFiles() {
+        return this.numFiles;
+    }
+
+    /**
+     * Records the outcome of running a test case on an implementation.
+     *
+     * @param caseIndex the index of the test case
+     * @param fileIndex the index of the implementation
+     * @param outcome   the outcome
+     */
+    public void put(int caseIndex, int fileIndex, TestOutcome outcome) {
+        this.checkCell(caseIndex, fileIndex);
+        FileOutcomes file = this.files[fileIndex];
+        if (file == null) {
+            file = new FileOutcomes(this.numCases);
+            this.files[fileIndex] = file;
+        }
+        file.kinds[caseIndex] = (byte) (outcome.kind().ordinal() + 1);
+        file.elapsedNanos[caseIndex] = outcome.elapsedNanos();
+        if (outcome.exceptionType() != null) {
+            String type = this.typeNames.computeIfAbsent(outcome.exceptionType(),
+                    name -> name);
+            file.exceptionTypes.put(caseIndex, type);
+        } else {
+            file.exceptionTypes.remove(caseIndex);
+        }
+    }
+
+    /**
+     * Returns the outcome of running a test case on an implementation.
+     *
+     * @param caseIndex the index of the test case
+     * @param fileIndex the index of the implementation
+     * @return the outcome, or null if the test case wasn't run on the implementation
+     */
+    public TestOutcome get(int caseIndex, int fileIndex) {
+        this.checkCell(caseIndex, fileIndex);
+        FileOutcomes file = this.files[fileIndex];
+        if (file == null || file.kinds[caseIndex] == 0) {
+            return null;
+        }
+        return new TestOutcome(TestOutcome.Kind.values()[file.kinds[caseIndex] - 1],
+                file.exceptionTypes.get(caseIndex), file.elapsedNanos[caseIndex]);
+    }
+
+    /**
+     * Returns the total time spent running a test case on every implementation, which
+     * helps find slow test cases. Cells that are empty or whose elapsed time is unknown
+     * are skipped.
+     *
+     * @param caseIndex the index of the test case
+     * @return the total elapsed time in nanoseconds
+     */
+    public long getCaseElapsedNanos(int caseIndex) {
+        long total = 0;
+        for (int fileIndex = 0; fileIndex < this.numFiles; fileIndex++) {
+            total += this.getKnownElapsedNanos(caseIndex, fileIndex);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total time spent running every test case on an implementation, which
+     * helps find pathological implementations. Cells that are empty or whose elapsed
+     * time is unknown are skipped.
+     *
+     * @param fileIndex the index of the implementation
+     * @return the total elapsed time in nanoseconds
+     */
+    public long getFileElapsedNanos(int fileIndex) {
+        long total = 0;
+        for (int caseIndex = 0; caseIndex < this.numCases; caseIndex++) {
+            total += this.getKnownElapsedNanos(caseIndex, fileIndex);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the elapsed time of a cell, or zero if the cell is empty or its elapsed
+     * time is unknown.
+     *
+     * @param caseIndex the index of the test case
+     * @param fileIndex the index of the implementation
+     * @return the elapsed time in nanoseconds
+     */
+    private long getKnownElapsedNanos(int caseIndex, int fileIndex) {
+        this.checkCell(caseIndex, fileIndex);
+        FileOutcomes file = this.files[fileIndex];
+        if (file == null || file.kinds[caseIndex] == 0 || file.elapsedNanos[caseIndex] < 0) {
+            return 0;
+        }
+        return file.elapsedNanos[caseIndex];
+    }
+
+    /**
+     * Checks that a cell is within the table.
+     *
+     * @param caseIndex the index of the test case
+     * @param fileIndex the index of the implementation
+     * @throws IndexOutOfBoundsException if either index is out of range
+     */
+    private void checkCell(int caseIndex, int fileIndex) {
+        if (caseIndex < 0 || caseIndex >= this.numCases || fileIndex < 0
+                || fileIndex >= this.numFiles) {
+            throw new IndexOutOfBoundsException("no cell (" + caseIndex + ", " +
+                    fileIndex + ")");
+        }
+    }
+
+    /**
+     * The outcomes recorded for a single implementation, indexed by test case.
+     */
+    private static class FileOutcomes {
+
+        /**
+         * The kind of each cell's outcome, as one more than its ordinal; zero marks an
+         * empty cell.
+         */
+        private final byte[] kinds;
+
+        /**
+         * The elapsed time of each cell's outcome, in nanoseconds.
+         */
+        private final long[] elapsedNanos;
+
+        /**
+         * The exception types of the cells that have one, keyed by their test cases'
+         * indices.
+         */
+        private final Map<Integer, String> exceptionTypes;
+
+        /**
+         * Constructor for an empty FileOutcomes.
+         *
+         * @param numCases the number of test cases
+         */
+        FileOutcomes(int numCases) {
+            this.kinds = new byte[numCases];
+            this.elapsedNanos = new long[numCases];
+            this.exceptionTypes = new HashMap<>();
+        }
+    }
+}
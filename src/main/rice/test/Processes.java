@@ -0,0 +1,113 @@
+package main.rice.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stateless class containing helpers for managing the Python processes started by the
+ * Tester.
+ */
+public class Processes {
+
+    /**
+     * The scheduler used to kill processes that run for too long; shared by all
+     * processes, since it only ever runs short kill tasks.
+     */
+    private static final ScheduledExecutorService WATCHDOG =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "process-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Forcibly kills a process along with every process that it started (directly or
+     * indirectly), so that code under test can't escape a timeout by forking.
+     *
+     * @param process the process to be killed
+     */
+    public static void killTree(Process process) {
+        // Collect the descendants before killing the root; once the root is dead, its
+        // children are re-parented and can no longer be found through it
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Arranges for a process (and every process that it started) to be killed once the
+     * given amount of time has passed. The caller should cancel the returned task (using
+     * cancel(false)) once the process is done; if cancel() returns false, the process
+     * was killed for running too long.
+     *
+     * @param process       the process to be killed
+     * @param timeoutMillis the time limit in milliseconds; must be positive
+     * @return the scheduled kill task
+     */
+    public static ScheduledFuture<?> killAfter(Process process, long timeoutMillis) {
+        return WATCHDOG.schedule(() -> killTree(process), timeoutMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the input stream to its end and returns its last line, using the same
+     * definition of a line as BufferedReader.readLine() (so a trailing line terminator
+     * does not start a new, empty line). Only the line currently being read and the last
+     * complete line are held in memory, and a line longer than maxLineBytes is not held
+     * at all: if it turns out to be the last line, the empty string is returned instead.
+     * The stream is always read to its end, so a process can never block on a full
+     * output pipe no matter how much it prints.
+     *
+     * @param in           the stream to be read
+     * @param maxLineBytes the maximum number of bytes to keep for a single line
+     * @return the last line of the stream, or the empty string if the stream is empty or
+     * its last line was too long
+     * @throws IOException if the stream cannot be read
+     */
+    public static String readLastLine(InputStream in, int maxLineBytes)
+            throws IOException {
+        ByteArrayOutputStream current = new ByteArrayOutputStream();
+        boolean currentTooLong = false;
+        String last = "";
+        boolean pending = false;
+        boolean skipLineFeed = false;
+
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            for (int i = 0; i < count; i++) {
+                byte b = buffer[i];
+                if (b == '\n' && skipLineFeed) {
+                    // Second half of a \r\n terminator
+                    skipLineFeed = false;
+                } else if (b == '\n' || b == '\r') {
+                    // End of a line; it becomes the new last line
+                    last = currentTooLong ? "" : current.toString();
+                    current.reset();
+                    currentTooLong = false;
+                    pending = false;
+                    skipLineFeed = (b == '\r');
+                } else {
+                    // Part of the current line; only keep it if it could still fit
+                    skipLineFeed = false;
+                    pending = true;
+                    if (current.size() < maxLineBytes) {
+                        current.write(b);
+                    } else {
+                        currentTooLong = true;
+                    }
+                }
+            }
+        }
+
+        // An unterminated final line still counts as a line
+        if (pending) {
+            return currentTooLong ? "" : current.toString();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,175 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A handle on a single long-lived Python worker process. Requests and responses are
+ * exchanged over the process's stdin and stdout as frames, each of which consists of a
+ * four-byte big-endian length followed by that many bytes of UTF-8 text.
+ */
+public class PyWorker implements Closeable {
+
+    /**
+     * The command used to (re)start the worker process.
+     */
+    private final List<String> command;
+
+    /**
+     * The currently-running worker process, or null if it has not been started (or has
+     * died and not yet been restarted).
+     */
+    private Process process;
+
+    /**
+     * The stream used to send request frames to the worker.
+     */
+    private DataOutputStream toWorker;
+
+    /**
+     * The stream used to receive response frames from the worker.
+     */
+    private DataInputStream fromWorker;
+
+    /**
+     * Constructor for a PyWorker; starts the worker process.
+     *
+     * @param command the command used to start the worker process
+     * @throws IOException if the worker process cannot be started
+     */
+    public PyWorker(List<String> command) throws IOException {
+        this.command = command;
+        this.start();
+    }
+
+    /**
+     * Sends a single request frame to the worker and returns the response frame. If the
+     * worker dies while handling the request (e.g. because the code under test crashed
+     * the interpreter), the worker is restarted before the next request and the empty
+     * string is returned, which callers treat as a failure.
+     *
+     * @param request the request to be sent
+     * @return the worker's response, or the empty string if the worker died
+     * @throws IOException if the worker cannot be restarted
+     */
+    public String request(String request) throws IOException {
+        try {
+            return this.request(request, 0);
+        } catch (TimeoutException e) {
+            // Unreachable, since there is no time limit
+            return "";
+        }
+    }
+
+    /**
+     * Sends a single request frame to the worker and returns the response frame, killing
+     * the worker (along with any processes that it started) if the response doesn't
+     * arrive within the given time limit. As with request(String), a worker that dies
+     * while handling the request is restarted before the next request.
+     *
+     * @param request       the request to be sent
+     * @param timeoutMillis the time limit in milliseconds, or zero for no limit
+     * @return the worker's response, or the empty string if the worker died
+     * @throws IOException if the worker cannot be restarted
+     * @throws TimeoutException if the worker was killed for exceeding the time limit
+     */
+    public String request(String request, long timeoutMillis)
+            throws IOException, TimeoutException {
+        if (this.process == null || !this.process.isAlive()) {
+            this.restart();
+        }
+
+        // Arrange for the worker to be killed if it doesn't respond in time, which
+        // unblocks the read below
+        ScheduledFuture<?> watchdog = null;
+        if (timeoutMillis > 0) {
+            watchdog = Processes.killAfter(this.process, timeoutMillis);
+        }
+
+        try {
+            // Send the request frame
+            byte[] payload = request.getBytes(StandardCharsets.UTF_8);
+            this.toWorker.writeInt(payload.length);
+            this.toWorker.write(payload);
+            this.toWorker.flush();
+
+            // Read the response frame
+            int length = this.fromWorker.readInt();
+            byte[] response = this.fromWorker.readNBytes(length);
+            if (response.length < length) {
+                throw new EOFException("truncated response from worker");
+            }
+            return new String(response, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // The worker died mid-request; make sure it's gone so that it gets
+            // restarted on the next request
+            this.destroy();
+            if (watchdog != null && !watchdog.cancel(false)) {
+                throw new TimeoutException("worker exceeded " + timeoutMillis + " ms");
+            }
+            return "";
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Shuts down the worker process by closing its stdin (which tells the worker that no
+     * more requests are coming) and then killing it.
+     *
+     * @throws IOException if the worker's stdin cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.process != null) {
+            try {
+                this.toWorker.close();
+            } catch (IOException e) {
+                // The worker already exited; nothing left to close
+            }
+            this.destroy();
+        }
+    }
+
+    /**
+     * Starts a new worker process, discarding its stderr so that it can never fill up
+     * and block the worker.
+     *
+     * @throws IOException if the worker process cannot be started
+     */
+    private void start() throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(this.command);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        this.process = pb.start();
+        this.toWorker = new DataOutputStream(
+                new BufferedOutputStream(this.process.getOutputStream()));
+        this.fromWorker = new DataInputStream(
+                new BufferedInputStream(this.process.getInputStream()));
+    }
+
+    /**
+     * Kills the current worker process (if any) and starts a new one.
+     *
+     * @throws IOException if the worker process cannot be started
+     */
+    private void restart() throws IOException {
+        this.destroy();
+        this.start();
+    }
+
+    /**
+     * Forcibly kills the current worker process (and any processes that it started), if
+     * any.
+     */
+    private void destroy() {
+        if (this.process != null) {
+            Processes.killTree(this.process);
+            this.process = null;
+        }
+    }
+}
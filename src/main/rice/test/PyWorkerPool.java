@@ -0,0 +1,101 @@
+package main.rice.test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A fixed-size pool of long-lived Python workers. Callers check a worker out using
+ * acquire(), send it any number of requests, and then return it using release().
+ */
+public class PyWorkerPool implements Closeable {
+
+    /**
+     * All workers owned by this pool, whether idle or checked out.
+     */
+    private final List<PyWorker> workers;
+
+    /**
+     * The workers that are currently available to be checked out.
+     */
+    private final BlockingQueue<PyWorker> idle;
+
+    /**
+     * Constructor for a PyWorkerPool; starts size workers, each of which runs the given
+     * command.
+     *
+     * @param command the command used to start each worker process
+     * @param size    the number of workers in the pool
+     * @throws IOException if any of the worker processes cannot be started
+     */
+    public PyWorkerPool(List<String> command, int size) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("pool size must be positive");
+        }
+
+        this.workers = new ArrayList<>();
+        this.idle = new LinkedBlockingQueue<>();
+        try {
+            for (int i = 0; i < size; i++) {
+                PyWorker worker = new PyWorker(command);
+                this.workers.add(worker);
+                this.idle.add(worker);
+            }
+        } catch (IOException e) {
+            // Don't leak the workers that were successfully started
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of workers in this pool.
+     *
+     * @return the number of workers in this pool
+     */
+    public int size() {
+        return this.workers.size();
+    }
+
+    /**
+     * Checks out an idle worker, waiting until one becomes available if necessary.
+     *
+     * @return a worker that is exclusively owned by the caller until it is released
+     * @throws InterruptedException if interrupted while waiting for a worker
+     */
+    public PyWorker acquire() throws InterruptedException {
+        return this.idle.take();
+    }
+
+    /**
+     * Returns a previously-acquired worker to the pool.
+     *
+     * @param worker the worker to be returned
+     */
+    public void release(PyWorker worker) {
+        this.idle.add(worker);
+    }
+
+    /**
+     * Shuts down every worker in the pool.
+     *
+     * @throws IOException if any of the workers cannot be shut down
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (PyWorker worker : this.workers) {
+            try {
+                worker.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
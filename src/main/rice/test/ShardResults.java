@@ -0,0 +1,333 @@
+package main.rice.test;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The results of one shard of a grading job: which of its slice of the test cases caught
+ * which of its slice of the implementations. Test cases and implementations are
+ * identified by their indices within the whole job, so the results of every shard can be
+ * written to disk and later merged into a single TestResults, as if the job had run in
+ * one piece. Each test case's fingerprint is kept as well, so that a merge can check that
+ * every shard generated the same test cases.
+ */
+public class ShardResults {
+
+    /**
+     * The version of the file format; files written in another version are rejected.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The shard that produced these results.
+     */
+    private final ShardSpec shard;
+
+    /**
+     * The number of test cases in the whole job.
+     */
+    private final int numCases;
+
+    /**
+     * The number of implementations in the whole job.
+     */
+    private final int numFiles;
+
+    /**
+     * The indices (within the whole job) of the test cases that the shard ran.
+     */
+    private final List<Integer> caseIndices;
+
+    /**
+     * The fingerprints of the test cases that the shard ran, in the same order.
+     */
+    private final List<String> fingerprints;
+
+    /**
+     * A list where the i-th element is the set of implementations caught by the i-th
+     * test case that the shard ran.
+     */
+    private final List<Set<Integer>> caseToFiles;
+
+    /**
+     * A list where the i-th element is the set of implementations that timed out on the
+     * i-th test case that the shard ran.
+     */
+    private final List<Set<Integer>> caseToTimeouts;
+
+    /**
+     * A list where the i-th element is the set of implementations that exceeded a
+     * resource limit on the i-th test case that the shard ran.
+     */
+    private final List<Set<Integer>> caseToLimitBreaches;
+
+    /**
+     * The implementations that failed one or more of the test cases that the shard ran.
+     */
+    private final Set<Integer> wrongSet;
+
+    /**
+     * Whether testing each implementation stopped at its first failure.
+     */
+    private final boolean partial;
+
+    /**
+     * Constructor for a ShardResults object; initializes all fields. Implementations are
+     * always identified by their indices within the whole job.
+     *
+     * @param shard               the shard that produced the results
+     * @param numCases            the number of test cases in the whole job
+     * @param numFiles            the number of implementations in the whole job
+     * @param caseIndices         the indices of the test cases that the shard ran
+     * @param fingerprints        the fingerprints of those test cases
+     * @param caseToFiles         the implementations caught by each of those test cases
+     * @param caseToTimeouts      the implementations that timed out on each of them
+     * @param caseToLimitBreaches the implementations that exceeded a resource limit on
+     *                            each of them
+     * @param wrongSet            the implementations that failed one or more of them
+     * @param partial             whether testing each implementation stopped at its
+     *                            first failure
+     */
+    private ShardResults(ShardSpec shard, int numCases, int numFiles,
+                         List<Integer> caseIndices, List<String> fingerprints,
+                         List<Set<Integer>> caseToFiles, List<Set<Integer>> caseToTimeouts,
+                         List<Set<Integer>> caseToLimitBreaches, Set<Integer> wrongSet,
+                         boolean partial) {
+        this.shard = shard;
+        this.numCases = numCases;
+        this.numFiles = numFiles;
+        this.caseIndices = caseIndices;
+        this.fingerprints = fingerprints;
+        this.caseToFiles = caseToFiles;
+        this.caseToTimeouts = caseToTimeouts;
+        this.caseToLimitBreaches = caseToLimitBreaches;
+        this.wrongSet = wrongSet;
+        this.partial = partial;
+    }
+
+    /**
+     * Wraps the results of running a shard. If the job is split along its test cases,
+     * the results' test cases must be the shard's slice of the job's test cases (so that
+     * index i within the results is index start + i within the job); either way, the
+     * results must identify implementations by their indices within the whole job, as
+     * Tester.runTests() does when given a file shard.
+     *
+     * @param shard    the shard that produced the results
+     * @param numCases the number of test cases in the whole job
+     * @param numFiles the number of implementations in the whole job
+     * @param results  the results of running the shard
+     * @return the shard's results
+     * @throws IllegalArgumentException if the results don't hold the shard's slice of the
+     *                                  test cases
+     */
+    public static ShardResults of(ShardSpec shard, int numCases, int numFiles,
+                                  TestResults results) {
+        // Work out which of the job's test cases the results hold
+        int start = 0;
+        int end = numCases;
+        if (shard.axis() == ShardSpec.Axis.CASES) {
+            start = shard.start(numCases);
+            end = shard.end(numCases);
+        }
+        if (results.getCaseToFiles().size() != end - start) {
+            throw new IllegalArgumentException("shard " + shard + " should hold " +
+                    (end - start) + " test cases, not " + results.getCaseToFiles().size());
+        }
+
+        List<Integer> caseIndices = new ArrayList<>();
+        List<String> fingerprints = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            caseIndices.add(i);
+            fingerprints.add(results.getTestCase(i - start).getFingerprint());
+        }
+        return new ShardResults(shard, numCases, numFiles, caseIndices, fingerprints,
+                results.getCaseToFiles(), results.getCaseToTimeouts(),
+                results.getCaseToLimitBreaches(), results.getWrongSet(),
+                results.isPartial());
+    }
+
+    /**
+     * Returns the shard that produced these results.
+     *
+     * @return the shard
+     */
+    public ShardSpec getShard() {
+        return this.shard;
+    }
+
+    /**
+     * Writes these results to a file, as JSON.
+     *
+     * @param path the path to the file to be written
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("version", FORMAT_VERSION);
+        json.put("shard", this.shard.toString());
+        json.put("axis", this.shard.axis().name());
+        json.put("numCases", this.numCases);
+        json.put("numFiles", this.numFiles);
+        json.put("cases", new JSONArray(this.caseIndices));
+        json.put("fingerprints", new JSONArray(this.fingerprints));
+        json.put("caught", toJson(this.caseToFiles));
+        json.put("timeouts", toJson(this.caseToTimeouts));
+        json.put("limitBreaches", toJson(this.caseToLimitBreaches));
+        json.put("wrong", new JSONArray(new TreeSet<>(this.wrongSet)));
+        json.put("partial", this.partial);
+        Files.writeString(path, json.toString());
+    }
+
+    /**
+     * Reads results that were written to a file by write().
+     *
+     * @param path the path to the file to be read
+     * @return the results
+     * @throws IOException if the file cannot be read, or doesn't hold shard results
+     */
+    public static ShardResults read(Path path) throws IOException {
+        try {
+            JSONObject json = new JSONObject(Files.readString(path));
+            if (json.getInt("version") != FORMAT_VERSION) {
+                throw new IOException("unsupported shard results version in " + path);
+            }
+            ShardSpec shard = ShardSpec.parse(json.getString("shard"),
+                    ShardSpec.Axis.valueOf(json.getString("axis")));
+
+            List<Integer> caseIndices = new ArrayList<>();
+            List<String> fingerprints = new ArrayList<>();
+            JSONArray cases = json.getJSONArray("cases");
+            for (int i = 0; i < cases.length(); i++) {
+                caseIndices.add(cases.getInt(i));
+                fingerprints.add(json.getJSONArray("fingerprints").getString(i));
+            }
+            return new ShardResults(shard, json.getInt("numCases"), json.getInt("numFiles"),
+                    caseIndices, fingerprints, fromJson(json.getJSONArray("caught")),
+                    fromJson(json.getJSONArray("timeouts")),
+                    fromJson(json.getJSONArray("limitBreaches")),
+                    toSet(json.getJSONArray("wrong")), json.getBoolean("partial"));
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new IOException("malformed shard results in " + path, e);
+        }
+    }
+
+    /**
+     * Merges the results of every shard of a job into the results of the whole job, as
+     * if it had run in one piece. The shards must all come from the same split of the
+     * same job: between them, they must include each shard of the split exactly once, and
+     * each must have run the same test cases (as checked by their fingerprints) as those
+     * given.
+     *
+     * @param allCases the test cases of the whole job, in the order in which they were
+     *                 split
+     * @param shards   the results of every shard, in any order
+     * @return the results of the whole job
+     * @throws IllegalArgumentException if the shards don't make up the whole job
+     */
+    public static TestResults merge(List<TestCase> allCases, List<ShardResults> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("no shards to merge");
+        }
+
+        // Every shard of the split must be present exactly once
+        ShardSpec first = shards.get(0).shard;
+        boolean[] seen = new boolean[first.count()];
+        for (ShardResults shard : shards) {
+            if (shard.shard.count() != first.count() || shard.shard.axis() != first.axis()
+                    || shard.numCases != allCases.size()
+                    || shard.numFiles != shards.get(0).numFiles) {
+                throw new IllegalArgumentException("shard " + shard.shard +
+                        " comes from a different split than shard " + first);
+            }
+            if (seen[shard.shard.index() - 1]) {
+                throw new IllegalArgumentException("shard " + shard.shard +
+                        " is present more than once");
+            }
+            seen[shard.shard.index() - 1] = true;
+        }
+        for (int i = 0; i < seen.length; i++) {
+            if (!seen[i]) {
+                throw new IllegalArgumentException("shard " + (i + 1) + "/" +
+                        first.count() + " is missing");
+            }
+        }
+
+        // Combine the shards' results case by case
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        List<Set<Integer>> caseToTimeouts = new ArrayList<>();
+        List<Set<Integer>> caseToLimitBreaches = new ArrayList<>();
+        for (int i = 0; i < allCases.size(); i++) {
+            caseToFiles.add(new HashSet<>());
+            caseToTimeouts.add(new HashSet<>());
+            caseToLimitBreaches.add(new HashSet<>());
+        }
+        Set<Integer> wrongSet = new HashSet<>();
+        boolean partial = false;
+        for (ShardResults shard : shards) {
+            for (int i = 0; i < shard.caseIndices.size(); i++) {
+                int caseIndex = shard.caseIndices.get(i);
+                if (!allCases.get(caseIndex).getFingerprint().equals(
+                        shard.fingerprints.get(i))) {
+                    throw new IllegalArgumentException("shard " + shard.shard +
+                            " ran a different test case at index " + caseIndex);
+                }
+                caseToFiles.get(caseIndex).addAll(shard.caseToFiles.get(i));
+                caseToTimeouts.get(caseIndex).addAll(shard.caseToTimeouts.get(i));
+                caseToLimitBreaches.get(caseIndex).addAll(shard.caseToLimitBreaches.get(i));
+            }
+            wrongSet.addAll(shard.wrongSet);
+            partial = partial || shard.partial;
+        }
+        return new TestResults(allCases, caseToFiles, wrongSet, caseToTimeouts,
+                caseToLimitBreaches, new OutcomeTable(allCases.size(), 0), partial);
+    }
+
+    /**
+     * Converts a list of sets of indices to JSON, sorting each set so that the output is
+     * stable.
+     *
+     * @param sets the sets to be converted
+     * @return a JSON array of arrays of indices
+     */
+    private static JSONArray toJson(List<Set<Integer>> sets) {
+        JSONArray json = new JSONArray();
+        for (Set<Integer> set : sets) {
+            json.put(new JSONArray(new TreeSet<>(set)));
+        }
+        return json;
+    }
+
+    /**
+     * Converts a JSON array of arrays of indices back to a list of sets.
+     *
+     * @param json the JSON array
+     * @return the list of sets of indices
+     */
+    private static List<Set<Integer>> fromJson(JSONArray json) {
+        List<Set<Integer>> sets = new ArrayList<>();
+        for (int i = 0; i < json.length(); i++) {
+            sets.add(toSet(json.getJSONArray(i)));
+        }
+        return sets;
+    }
+
+    /**
+     * Converts a JSON array of indices to a set.
+     *
+     * @param json the JSON array
+     * @return the set of indices
+     */
+    private static Set<Integer> toSet(JSONArray json) {
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < json.length(); i++) {
+            set.add(json.getInt(i));
+        }
+        return set;
+    }
+}
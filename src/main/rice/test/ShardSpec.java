@@ -0,0 +1,96 @@
+package main.rice.test;
+
+/**
+ * Identifies one shard of a grading job that is split across several machines (or
+ * JVMs): shard index of count, where shards are numbered from 1. A job is split along
+ * one axis, either the test cases or the implementations, each shard taking a contiguous
+ * slice of that axis (as close to equal in size as possible) and all of the other.
+ *
+ * @param index the number of this shard, from 1 to count
+ * @param count the number of shards in the job
+ * @param axis  the axis along which the job is split
+ */
+public record ShardSpec(int index, int count, Axis axis) {
+
+    /**
+     * The axes along which a grading job can be split.
+     */
+    public enum Axis {
+        /**
+         * Each shard runs a slice of the test cases on every implementation.
+         */
+        CASES,
+
+        /**
+         * Each shard runs every test case on a slice of the implementations.
+         */
+        FILES
+    }
+
+    /**
+     * Constructor for a ShardSpec, which checks that the shard is one of the job's.
+     *
+     * @param index the number of this shard, from 1 to count
+     * @param count the number of shards in the job
+     * @param axis  the axis along which the job is split
+     * @throws IllegalArgumentException if the count isn't positive, or the index isn't
+     *                                  between 1 and the count
+     */
+    public ShardSpec {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("invalid shard " + index + "/" + count);
+        }
+    }
+
+    /**
+     * Parses a shard given in the form index/count, e.g. "2/4" for the second of four.
+     *
+     * @param spec the shard, in the form index/count
+     * @param axis the axis along which the job is split
+     * @return the shard
+     * @throws IllegalArgumentException if the shard isn't in the form index/count, or
+     *                                  isn't one of the job's
+     */
+    public static ShardSpec parse(String spec, Axis axis) {
+        int slash = spec.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("invalid shard " + spec);
+        }
+        try {
+            return new ShardSpec(Integer.parseInt(spec.substring(0, slash)),
+                    Integer.parseInt(spec.substring(slash + 1)), axis);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid shard " + spec);
+        }
+    }
+
+    /**
+     * Returns the index at which this shard's slice of an axis starts.
+     *
+     * @param size the length of the axis
+     * @return the index of the first element of the slice (inclusive)
+     */
+    public int start(int size) {
+        return (int) ((long) (this.index - 1) * size / this.count);
+    }
+
+    /**
+     * Returns the index at which this shard's slice of an axis ends.
+     *
+     * @param size the length of the axis
+     * @return the index after the last element of the slice (exclusive)
+     */
+    public int end(int size) {
+        return (int) ((long) this.index * size / this.count);
+    }
+
+    /**
+     * Returns this shard in the form index/count.
+     *
+     * @return the string representation of this shard
+     */
+    @Override
+    public String toString() {
+        return this.index + "/" + this.count;
+    }
+}
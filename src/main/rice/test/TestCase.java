@@ -1,7 +1,10 @@
 package main.rice.test;
 
-import main.rice.obj.APyObj;
+import main.rice.obj.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A representation of a test case; a wrapper around its arguments, each of which is an
@@ -42,6 +45,62 @@ public class TestCase {
         return this.args.toString();
     }
 
+    /**
+     * Returns a fingerprint of this test's arguments: a string representation in which
+     * the elements of every set and the entries of every dictionary are sorted. Unlike
+     * toString(), which follows the iteration order of the underlying Java collections,
+     * the fingerprint only depends on this test's value, so two equal tests always have
+     * the same fingerprint, even across JVMs.
+     *
+     * @return a stable string representation of this test's arguments
+     */
+    public String getFingerprint() {
+        List<String> args = new ArrayList<>();
+        for (APyObj arg : this.args) {
+            args.add(canonicalRepr(arg));
+        }
+        return args.toString();
+    }
+
+    /**
+     * Helper function for getFingerprint(); builds a string representation of the input
+     * object in which the elements of sets and the entries of dictionaries (at any level
+     * of nesting) are sorted.
+     *
+     * @param obj the object to be represented
+     * @return a stable string representation of obj
+     */
+    private static String canonicalRepr(APyObj obj) {
+        if (obj instanceof PyDictObj<?, ?> dict) {
+            // Sort the (key, value) pairs by their representations
+            List<String> entries = new ArrayList<>();
+            for (Map.Entry<? extends APyObj, ? extends APyObj> entry :
+                    dict.getValue().entrySet()) {
+                entries.add(canonicalRepr(entry.getKey()) + ": " +
+                        canonicalRepr(entry.getValue()));
+            }
+            Collections.sort(entries);
+            return "{" + String.join(", ", entries) + "}";
+        } else if (obj instanceof PyStringObj) {
+            // Strings have no nested collections
+            return obj.toString();
+        } else if (obj instanceof AIterablePyObj<?> iterable) {
+            List<String> elems = new ArrayList<>();
+            for (APyObj elem : iterable.getValue()) {
+                elems.add(canonicalRepr(elem));
+            }
+
+            // Sort the elements of a set; lists and tuples are already ordered
+            if (obj instanceof PySetObj) {
+                Collections.sort(elems);
+                return "set(" + elems + ")";
+            }
+            String joined = String.join(", ", elems);
+            return (obj instanceof PyTupleObj) ? "(" + joined + ",)" : "[" + joined + "]";
+        }
+        return obj.toString();
+    }
+
     /**
      * Compares this test's arguments to the input object's arguments (if it's a TestCase)
      * by value.
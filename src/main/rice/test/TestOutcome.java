@@ -0,0 +1,120 @@
+package main.rice.test;
+
+/**
+ * The outcome of running a single test case on a single buggy implementation: what kind
+ * of outcome it was, the type of the exception that the implementation raised (if any),
+ * and how long the test case ran.
+ *
+ * @param kind          the kind of outcome
+ * @param exceptionType the name of the type of the exception that the implementation
+ *                      raised, or null if it didn't raise one
+ * @param elapsedNanos  how long the test case ran, in nanoseconds, or -1 if unknown
+ */
+public record TestOutcome(Kind kind, String exceptionType, long elapsedNanos) {
+
+    /**
+     * The kinds of outcome that a test case can have. Every kind other than PASS counts
+     * as a failure.
+     */
+    public enum Kind {
+        /**
+         * The implementation returned the expected result.
+         */
+        PASS('1'),
+
+        /**
+         * The implementation returned a result other than the expected one.
+         */
+        WRONG('0'),
+
+        /**
+         * The implementation raised an exception.
+         */
+        ERROR('E'),
+
+        /**
+         * The process running the implementation died without reporting a verdict.
+         */
+        CRASH('X'),
+
+        /**
+         * The implementation exceeded the time limit.
+         */
+        TIMEOUT('T'),
+
+        /**
+         * The implementation ran out of memory under the memory limit.
+         */
+        MEMORY_LIMIT('M'),
+
+        /**
+         * The implementation exceeded the CPU time limit.
+         */
+        CPU_LIMIT('C');
+
+        /**
+         * The character that represents this kind in the records reported by the
+         * wrapper and workers.
+         */
+        private final char code;
+
+        /**
+         * Constructor for a Kind.
+         *
+         * @param code the character that represents the kind in records
+         */
+        Kind(char code) {
+            this.code = code;
+        }
+
+        /**
+         * Returns the kind represented by the given character in records.
+         *
+         * @param code the character
+         * @return the kind, or null if the character doesn't represent one
+         */
+        static Kind fromCode(char code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Parses a record reported by the wrapper or a worker, which consists of the code of
+     * the kind of outcome, the elapsed time in nanoseconds, and (for exceptions) the
+     * name of the exception's type, separated by spaces.
+     *
+     * @param record the record to be parsed
+     * @return the outcome, or null if the record is malformed
+     */
+    public static TestOutcome parse(String record) {
+        String[] fields = record.split(" ", 3);
+        if (fields.length < 2 || fields[0].length() != 1) {
+            return null;
+        }
+        Kind kind = Kind.fromCode(fields[0].charAt(0));
+        if (kind == null) {
+            return null;
+        }
+        long elapsedNanos;
+        try {
+            elapsedNanos = Long.parseLong(fields[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new TestOutcome(kind, (fields.length > 2) ? fields[2] : null, elapsedNanos);
+    }
+
+    /**
+     * Returns whether the test case passed.
+     *
+     * @return true if the outcome is a pass; false if it is any kind of failure
+     */
+    public boolean passed() {
+        return this.kind == Kind.PASS;
+    }
+}
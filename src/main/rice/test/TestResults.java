@@ -1,5 +1,7 @@
 package main.rice.test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -28,7 +30,33 @@ public class TestResults {
     private final Set<Integer> wrongSet;
 
     /**
-     * Constructor for a TestResults object; initializes all fields.
+     * A list where the i-th element is the set of integers representing the indices of
+     * the files that were killed for exceeding the time limit on the i-th test case in
+     * allCases. Every such file is also included in the i-th element of caseToFiles.
+     */
+    private final List<Set<Integer>> caseToTimeouts;
+
+    /**
+     * A list where the i-th element is the set of integers representing the indices of
+     * the files that exceeded a resource limit (memory or CPU time) on the i-th test case
+     * in allCases. Every such file is also included in the i-th element of caseToFiles.
+     */
+    private final List<Set<Integer>> caseToLimitBreaches;
+
+    /**
+     * The outcome of each test case on each file that it was run on.
+     */
+    private final OutcomeTable outcomes;
+
+    /**
+     * Whether caseToFiles is partial, i.e. testing each file stopped at its first
+     * failure, so each file appears in caseToFiles for only one test case.
+     */
+    private final boolean partial;
+
+    /**
+     * Constructor for a TestResults object in which no test timed out or exceeded a
+     * resource limit and no outcomes were recorded; initializes all fields.
      *
      * @param allCases    all test cases that were executed
      * @param caseToFiles a list where the i-th element is a set of integers representing
@@ -37,9 +65,56 @@ public class TestResults {
      */
     public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
                        Set<Integer> wrongSet) {
+        this(allCases, caseToFiles, wrongSet, emptySets(caseToFiles.size()),
+                emptySets(caseToFiles.size()), new OutcomeTable(caseToFiles.size(), 0),
+                false);
+    }
+
+    /**
+     * Constructor for a TestResults object that records the outcome of each test case
+     * on each file; initializes all fields.
+     *
+     * @param allCases            all test cases that were executed
+     * @param caseToFiles         a list where the i-th element is a set of integers
+     *                            representing the files that were caught by the i-th
+     *                            test case in allCases
+     * @param wrongSet            the set of all files that failed one or more tests in
+     *                            allCases
+     * @param caseToTimeouts      a list where the i-th element is a set of integers
+     *                            representing the files that timed out on the i-th test
+     *                            case in allCases
+     * @param caseToLimitBreaches a list where the i-th element is a set of integers
+     *                            representing the files that exceeded a resource limit on
+     *                            the i-th test case in allCases
+     * @param outcomes            the outcome of each test case on each file
+     * @param partial             whether testing each file stopped at its first failure,
+     *                            so that caseToFiles only records that failure
+     */
+    public TestResults(List<TestCase> allCases, List<Set<Integer>> caseToFiles,
+                       Set<Integer> wrongSet, List<Set<Integer>> caseToTimeouts,
+                       List<Set<Integer>> caseToLimitBreaches, OutcomeTable outcomes,
+                       boolean partial) {
         this.allCases = allCases;
         this.caseToFiles = caseToFiles;
         this.wrongSet = wrongSet;
+        this.caseToTimeouts = caseToTimeouts;
+        this.caseToLimitBreaches = caseToLimitBreaches;
+        this.outcomes = outcomes;
+        this.partial = partial;
+    }
+
+    /**
+     * Returns a list of the given number of empty, mutable sets.
+     *
+     * @param size the number of sets
+     * @return the list of empty sets
+     */
+    private static List<Set<Integer>> emptySets(int size) {
+        List<Set<Integer>> sets = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            sets.add(new HashSet<>());
+        }
+        return sets;
     }
 
     /**
@@ -76,4 +151,51 @@ public class TestResults {
     public List<Set<Integer>> getCaseToFiles() {
         return this.caseToFiles;
     }
+
+    /**
+     * Returns the per-case list of files that timed out on each test case, where files
+     * are represented by their indices. Timeouts count as failures, so each of these
+     * sets is a subset of the corresponding set in getCaseToFiles().
+     *
+     * @return the per-case list of files that timed out on each test case
+     */
+    public List<Set<Integer>> getCaseToTimeouts() {
+        return this.caseToTimeouts;
+    }
+
+    /**
+     * Returns the per-case list of files that exceeded a resource limit (memory or CPU
+     * time) on each test case, where files are represented by their indices. Like
+     * timeouts, limit breaches count as failures, so each of these sets is a subset of
+     * the corresponding set in getCaseToFiles().
+     *
+     * @return the per-case list of files that exceeded a resource limit on each test case
+     */
+    public List<Set<Integer>> getCaseToLimitBreaches() {
+        return this.caseToLimitBreaches;
+    }
+
+    /**
+     * Returns the outcome (kind, exception type, and elapsed time) of each test case on
+     * each file, where files are represented by their indices. Only the test cases that
+     * were actually run have outcomes; in particular, results that weren't produced by
+     * Tester.runTests() have none.
+     *
+     * @return the table of outcomes
+     */
+    public OutcomeTable getOutcomes() {
+        return this.outcomes;
+    }
+
+    /**
+     * Returns whether caseToFiles (and caseToTimeouts) is partial. Partial results come
+     * from a fail-fast run, which stops testing each file at its first failure: the
+     * wrong set is still complete, but each wrong file appears in caseToFiles for only
+     * one test case, even if others would have caught it too.
+     *
+     * @return true if caseToFiles is partial; false if it is complete
+     */
+    public boolean isPartial() {
+        return this.partial;
+    }
 }
\ No newline at end of file
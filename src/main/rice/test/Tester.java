@@ -1,8 +1,26 @@
 package main.rice.test;
 
+import main.rice.metrics.Metrics;
 import main.rice.obj.APyObj;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 /**
  * A class for running a test suite. Encapsulates the ability to run the test suite on a
@@ -34,6 +52,157 @@ public class Tester {
      */
     private final List<TestCase> tests;
 
+    /**
+     * The absolute path to the directory in which the Tester writes the files that it
+     * generates (and Python writes its bytecode), or null to use the implementation
+     * directory.
+     */
+    private String workDirPath = null;
+
+    /**
+     * The name of the worker file, which is reserved (by its leading underscore) so that
+     * it can't collide with, and overwrite, an implementation.
+     */
+    private static final String WORKER_FILE = "_worker.py";
+
+    /**
+     * The name of the file, within a separate working directory, that runs the solution
+     * without modifying it.
+     */
+    private static final String SOLUTION_RUNNER_FILE = "_solution.py";
+
+    /**
+     * The line that marks the start of the footer that the Tester writes to the solution
+     * file; everything from this line on is replaced each time the footer is written.
+     */
+    private static final String SOLUTION_FOOTER_MARKER =
+            "# ---- Tester footer: everything below this line is generated ----";
+
+    /**
+     * The last line of a footer written by an earlier version of the Tester, which
+     * didn't mark the start of its footers.
+     */
+    private static final Pattern LEGACY_FOOTER_END =
+            Pattern.compile(" {4}print \\(repr\\(\\w+\\(\\*new_args\\)\\)\\)");
+
+    /**
+     * The names of the files that the Tester generates, which must not be tested as if
+     * they were implementations.
+     */
+    private static final Set<String> GENERATED_FILES =
+            Set.of("wrapper.py", "expected.py", WORKER_FILE, "cases.dat", "expected.dat");
+
+    /**
+     * The extra time, in milliseconds, that a fork server may go without reporting a
+     * verdict before it is killed, on top of twice the per-test time limit that it
+     * enforces on its children itself.
+     */
+    private static final long FORK_SERVER_GRACE_MILLIS = 1000;
+
+    /**
+     * The strategy used to execute test cases on the buggy implementations.
+     */
+    private ExecutionMode mode = ExecutionMode.PROCESS_PER_TEST;
+
+    /**
+     * The maximum number of units of work (each of which runs a range of test cases on
+     * a single implementation) that runTests() executes concurrently.
+     */
+    private final int concurrency;
+
+    /**
+     * The number of long-lived Python workers to use in WORKER_POOL mode.
+     */
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of test cases to run through the solution per process when computing
+     * the expected results; if zero, each test case is run in its own process.
+     */
+    private int solutionBatchSize = 0;
+
+    /**
+     * The maximum wall-clock time, in milliseconds, that a single test case may run
+     * before its process is killed; zero means no limit.
+     */
+    private long timeoutMillis = 0;
+
+    /**
+     * The maximum number of bytes of a buggy implementation's output line that are
+     * captured when it is run in its own process; longer lines are discarded.
+     */
+    private int maxOutputBytes = 64 * 1024;
+
+    /**
+     * The maximum size, in bytes, of the address space of each process that runs a buggy
+     * implementation; zero means no limit.
+     */
+    private long maxMemoryBytes = 0;
+
+    /**
+     * The maximum CPU time, in seconds, that a buggy implementation may use on a single
+     * test case; zero means no limit.
+     */
+    private int maxCpuSeconds = 0;
+
+    /**
+     * Whether the expected results are stored in the binary table expected.dat, rather
+     * than in expected.py.
+     */
+    private boolean binaryExpected = false;
+
+    /**
+     * The path to the directory in which the bytecode of the implementations is cached
+     * across runs, or null if it isn't cached.
+     */
+    private String bytecodeCachePath = null;
+
+    /**
+     * The path to the directory in which expected results are cached across runs, or
+     * null if they aren't cached.
+     */
+    private String expectedCachePath = null;
+
+    /**
+     * The path to the directory in which the verdicts of running test cases on the
+     * implementations are cached across runs, or null if they aren't cached.
+     */
+    private String verdictCachePath = null;
+
+    /**
+     * Whether testing a file stops at the first test case that it fails.
+     */
+    private boolean failFast = false;
+
+    /**
+     * The order in which test cases are run on each file, as a permutation of their
+     * indices, or null to run them in index order.
+     */
+    private List<Integer> caseOrder = null;
+
+    /**
+     * The registry in which the Tester records how long each phase of its work takes.
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * The shard of the implementations that runTests() tests, or null to test all of
+     * them.
+     */
+    private ShardSpec fileShard = null;
+
+    /**
+     * The pool of workers shared by every run between prepareTests() and cleanUpTests(),
+     * or null if none has been started.
+     */
+    private PyWorkerPool workerPool = null;
+
+    /**
+     * The executor that supervises the units of every run between prepareTests() and
+     * cleanUpTests(), or null outside of that window.
+     */
+    private ExecutorService unitExecutor = null;
+
     /**
      * Constructor for a Tester, which initializes all of the fields using the given
      * inputs.
@@ -47,107 +216,1300 @@ public class Tester {
      */
     public Tester(String funcName, String solutionPath, String implDirPath,
                   List<TestCase> tests) {
+        this(funcName, solutionPath, implDirPath, tests, 1);
+    }
+
+    /**
+     * Constructor for a Tester that tests up to concurrency implementations (or ranges
+     * of test cases within an implementation) at a time.
+     *
+     * @param funcName     the name of the function under test
+     * @param solutionPath the absolute path to the file containing the reference
+     *                     implementation
+     * @param implDirPath  the absolute path to the directory containing the student
+     *                     implementations
+     * @param tests        the list of test cases to be executed
+     * @param concurrency  the maximum number of units of work to execute at once; must
+     *                     be positive
+     */
+    public Tester(String funcName, String solutionPath, String implDirPath,
+                  List<TestCase> tests, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
         this.funcName = funcName;
         this.implDirPath = implDirPath;
         this.solutionPath = solutionPath;
         this.tests = tests;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Sets the strategy used to execute test cases on the buggy implementations.
+     *
+     * @param mode the execution mode to be used by runTests()
+     */
+    public void setExecutionMode(ExecutionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Sets the number of long-lived Python workers to use in WORKER_POOL mode.
+     *
+     * @param poolSize the number of workers; must be positive
+     */
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("pool size must be positive");
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Sets the number of test cases to run through the solution per process when
+     * computing the expected results. If zero (the default), each test case is run in
+     * its own process with its arguments on the command line; otherwise, the test cases
+     * are split into chunks of the given size, each of which is run in a single process
+     * that receives its arguments via stdin.
+     *
+     * @param solutionBatchSize the number of test cases per process, or zero to run
+     *                          each test case separately; must not be negative
+     */
+    public void setSolutionBatchSize(int solutionBatchSize) {
+        if (solutionBatchSize < 0) {
+            throw new IllegalArgumentException("batch size must not be negative");
+        }
+        this.solutionBatchSize = solutionBatchSize;
+    }
+
+    /**
+     * Sets the maximum wall-clock time that a single test case may run. A test case that
+     * runs for longer has its process (and every process that it started) killed, and
+     * counts as a failure that is also reported in TestResults.getCaseToTimeouts(). In
+     * the batched modes, the time limit applies to each test case within the batch.
+     *
+     * @param timeoutMillis the time limit in milliseconds, or zero for no limit; must
+     *                      not be negative
+     */
+    public void setTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Sets the maximum number of bytes that are captured from a single line of a buggy
+     * implementation's output when each test case is run in its own process. Only the
+     * last line (the verdict) is kept, and a last line that is longer than this is
+     * treated as a failure; everything else is drained and discarded as it arrives, so a
+     * chatty implementation costs neither memory nor a stalled process.
+     *
+     * @param maxOutputBytes the maximum number of bytes to capture; must be positive
+     */
+    public void setMaxOutputBytes(int maxOutputBytes) {
+        if (maxOutputBytes < 1) {
+            throw new IllegalArgumentException("output cap must be positive");
+        }
+        this.maxOutputBytes = maxOutputBytes;
+    }
+
+    /**
+     * Sets the maximum size of the address space of each process that runs a buggy
+     * implementation, which is enforced with RLIMIT_AS on POSIX systems (and ignored
+     * elsewhere). A test case on which the implementation runs out of memory under this
+     * limit counts as a failure that is also reported in
+     * TestResults.getCaseToLimitBreaches(). The reference solution is never limited.
+     *
+     * @param maxMemoryBytes the limit in bytes, or zero for no limit; must not be
+     *                       negative
+     */
+    public void setMemoryLimit(long maxMemoryBytes) {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("memory limit must not be negative");
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    /**
+     * Sets the maximum CPU time that a buggy implementation may use on a single test
+     * case, which is enforced with RLIMIT_CPU on POSIX systems (and ignored elsewhere).
+     * Unlike the time limit set by setTimeout(), this isn't affected by how busy the
+     * machine is. A test case on which the implementation exceeds this limit counts as a
+     * failure that is also reported in TestResults.getCaseToLimitBreaches(). The
+     * reference solution is never limited.
+     *
+     * @param maxCpuSeconds the limit in seconds, or zero for no limit; must not be
+     *                      negative
+     */
+    public void setCpuLimit(int maxCpuSeconds) {
+        if (maxCpuSeconds < 0) {
+            throw new IllegalArgumentException("CPU limit must not be negative");
+        }
+        this.maxCpuSeconds = maxCpuSeconds;
+    }
+
+    /**
+     * Sets the directory in which the Tester writes the files that it generates (the
+     * expected results, the wrapper, the worker, and the case table), and in which
+     * Python writes the bytecode of the implementations. When set, the implementation
+     * directory is only ever read, so any number of Testers, each with its own working
+     * directory, can test the same implementations at once. The working directory is
+     * created if it doesn't exist, and must not be shared with another Tester that runs
+     * at the same time.
+     *
+     * @param workDirPath the absolute path to the working directory, or null to write
+     *                    into the implementation directory
+     */
+    public void setWorkDir(String workDirPath) {
+        this.workDirPath = workDirPath;
+    }
+
+    /**
+     * Sets whether the expected results are stored in a binary table (expected.dat)
+     * rather than as a Python list (expected.py). The table holds the text of each
+     * result along with the offset at which it starts, so each test case only reads and
+     * evaluates its own expected result, rather than importing every result; this
+     * matters when there are many test cases with long results. If the expected results
+     * are written by hand rather than by computeExpectedResults(), they must be in the
+     * matching format.
+     *
+     * @param binaryExpected whether to store the expected results in binary form
+     */
+    public void setBinaryExpectedResults(boolean binaryExpected) {
+        this.binaryExpected = binaryExpected;
+    }
+
+    /**
+     * Sets the directory in which the bytecode of the implementations is cached across
+     * runs. When set, each implementation is compiled once per version of its contents,
+     * before any test case runs, into bytecode that Python checks against the hash of
+     * the implementation's source (rather than its modification time) whenever it is
+     * imported; every test case and every later run then reuses that bytecode, and an
+     * edited implementation is never run from stale bytecode. The expected results are
+     * never compiled into the cache, and their bytecode is still deleted after each run.
+     *
+     * @param cacheDirPath the path to the cache directory, or null to disable caching
+     */
+    public void setBytecodeCache(String cacheDirPath) {
+        this.bytecodeCachePath = cacheDirPath;
+    }
+
+    /**
+     * Sets the directory in which the expected results are cached across runs. When set,
+     * computeExpectedResults() only runs the test cases whose results aren't already
+     * cached for the current solution source and function name; editing the solution
+     * automatically starts a fresh cache.
+     *
+     * @param cacheDirPath the path to the cache directory, or null to disable caching
+     */
+    public void setExpectedResultsCache(String cacheDirPath) {
+        this.expectedCachePath = cacheDirPath;
+    }
+
+    /**
+     * Sets the directory in which the verdicts of running test cases on the buggy
+     * implementations are cached across runs. When set, runTests() only runs the
+     * implementations whose contents have changed (or that are new) since a previous run
+     * with the same expected results and settings; the outcomes of every other
+     * implementation are served from the cache, and the results (including
+     * TestResults.getOutcomes()) are the same as those of a full run. Verdicts of test
+     * cases that timed out are never cached, so implementations that timed out are
+     * always re-run.
+     *
+     * @param cacheDirPath the path to the cache directory, or null to disable caching
+     */
+    public void setVerdictCache(String cacheDirPath) {
+        this.verdictCachePath = cacheDirPath;
+    }
+
+    /**
+     * Sets whether testing a file stops at the first test case that it fails. This is
+     * enough to determine the wrong set, but the results only record the first failing
+     * case of each file, so caseToFiles is partial (as reported by
+     * TestResults.isPartial()): a concise set built from it still catches every wrong
+     * file, but may be larger than one built from the full results.
+     *
+     * @param failFast whether to stop testing each file at its first failure
+     */
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    /**
+     * Sets the order in which test cases are run on each file. Running the most
+     * discriminating cases first makes fail-fast mode stop sooner; in any other mode,
+     * the order has no effect on the results.
+     *
+     * @param caseOrder a permutation of the indices of the test cases, or null to run
+     *                  them in index order
+     */
+    public void setCaseOrder(List<Integer> caseOrder) {
+        if (caseOrder != null) {
+            // Every index must appear exactly once
+            boolean[] seen = new boolean[this.tests.size()];
+            for (int testIndex : caseOrder) {
+                if (testIndex < 0 || testIndex >= seen.length || seen[testIndex]) {
+                    throw new IllegalArgumentException("case order must be a " +
+                            "permutation of the test case indices");
+                }
+                seen[testIndex] = true;
+            }
+            if (caseOrder.size() != seen.length) {
+                throw new IllegalArgumentException("case order must be a permutation " +
+                        "of the test case indices");
+            }
+            caseOrder = List.copyOf(caseOrder);
+        }
+        this.caseOrder = caseOrder;
+    }
+
+    /**
+     * Sets the registry in which the Tester records its metrics: how long it takes to
+     * start each process ("tester.process.spawn") or pool of workers
+     * ("tester.pool.start") and for a process to produce its first output
+     * ("tester.process.first_output"), how many bytes each process writes
+     * ("tester.process.output_bytes"), how long each test case runs on an implementation
+     * ("tester.case.run"), how many test cases have each kind of outcome
+     * ("tester.outcome.pass", "tester.outcome.timeout", and so on), and how long
+     * computing the expected results, writing them, and running the tests take
+     * ("tester.expected.compute", "tester.expected.write", and "tester.run"). Each Tester
+     * has a registry of its own by default.
+     *
+     * @param metrics the registry in which to record metrics
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the registry in which the Tester records its metrics.
+     *
+     * @return the registry of metrics
+     */
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Restricts runTests() to one shard's slice of the implementations, for a grading
+     * job that is split along its implementations (see ShardResults). Implementations
+     * keep their indices within the whole directory, and those outside of the slice are
+     * not run, so they appear in the results as if they had passed every test case.
+     *
+     * @param fileShard the shard of the implementations to be tested, or null to test all
+     *                  of them
+     * @throws IllegalArgumentException if the shard isn't split along the
+     *                                  implementations
+     */
+    public void setFileShard(ShardSpec fileShard) {
+        if (fileShard != null && fileShard.axis() != ShardSpec.Axis.FILES) {
+            throw new IllegalArgumentException("shard " + fileShard +
+                    " is not split along the implementations");
+        }
+        this.fileShard = fileShard;
+    }
+
+    /**
+     * Returns the number of implementations in the implementation directory (whether or
+     * not they are in the file shard).
+     *
+     * @return the number of implementations
+     * @throws IOException if the implementation directory cannot be read
+     */
+    public int getNumImplFiles() throws IOException {
+        return this.getImplFilenames().size();
+    }
+
+    /**
+     * Computes the expected results by running each test case on the solution file.
+     * Stores the results in a list (which is returned) and also creates a .py file
+     * containing an equivalent list of the results.
+     *
+     * @return a list where the i-th element is the result (a string) of running the i-th
+     * test case on the reference solution
+     * @throws IOException if the path to the solution is invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    public List<String> computeExpectedResults() throws IOException, InterruptedException {
+        long computeStart = this.metrics.timer("tester.expected.compute").start();
+
+        // Write an appropriate footer to the solution file (or, given a separate working
+        // directory, to a runner there) to make it executable from the command-line
+        this.createWorkDir();
+        String solutionSource = this.appendToSolution();
+
+        // Look up any results that were cached by a previous run of the same solution,
+        // so that only the remaining test cases need to be run
+        List<String> results = new ArrayList<>(Collections.nCopies(this.tests.size(), ""));
+        List<Integer> pending = new ArrayList<>();
+        ExpectedResultsCache cache = null;
+        if (this.expectedCachePath != null) {
+            cache = new ExpectedResultsCache(this.expectedCachePath, solutionSource,
+                    this.funcName);
+        }
+        for (int i = 0; i < this.tests.size(); i++) {
+            String cached = (cache == null) ? null : cache.get(this.tests.get(i));
+            if (cached != null) {
+                results.set(i, cached);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        // Run each remaining test case on the solution file and gather the results; the
+        // solution reads each case's arguments from the case table
+        if (!pending.isEmpty()) {
+            this.writeCaseTable();
+        }
+        if (this.solutionBatchSize > 0) {
+            // Run the test cases in chunks, one process per chunk
+            int start = 0;
+            while (start < pending.size()) {
+                int end = start + Math.min(this.solutionBatchSize, pending.size() - start);
+                List<String> batch = this.runSolutionBatch(pending.subList(start, end));
+                for (String result : batch) {
+                    results.set(pending.get(start), result);
+                    start++;
+                }
+
+                // If the batch ended early, the case that was running when the solution
+                // died produced no result (and is left empty), just as it would have if
+                // run on its own
+                if (start < end) {
+                    start++;
+                }
+            }
+        } else {
+            for (int i : pending) {
+                List<String> args = this.getExpTestArgs(i);
+                String result;
+                try {
+                    // The solution's result may legitimately be long, so it's uncapped
+                    result = this.runTestHelper(args, Integer.MAX_VALUE);
+                } catch (TimeoutException e) {
+                    // Treat a solution that hangs like one that crashes
+                    result = "";
+                }
+                results.set(i, result);
+            }
+        }
+
+        // Remember the new results for future runs
+        if (cache != null) {
+            List<TestCase> pendingTests = new ArrayList<>();
+            List<String> pendingResults = new ArrayList<>();
+            for (int i : pending) {
+                pendingTests.add(this.tests.get(i));
+                pendingResults.add(results.get(i));
+            }
+            cache.putAll(pendingTests, pendingResults);
+        }
+
+        // Write the expected results to a .py file, so that they can be accessed via
+        // the wrapper. These cached results allow us to only run the solution once per
+        // test rather than having to run it once per test per buggy implementation.
+        long writeStart = this.metrics.timer("tester.expected.write").start();
+        this.outputExpectedResults(results);
+        this.metrics.timer("tester.expected.write").stop(writeStart);
+
+        // Return the results
+        this.metrics.timer("tester.expected.compute").stop(computeStart);
+        return results;
+    }
+
+    /**
+     * Runs all tests on all files in the directory of buggy implementations, comparing
+     * the outputs to the pre-generated expected results and returning the results in the
+     * form of a TestResults object.
+     *
+     * @return the results of testing
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    public TestResults runTests() throws IOException, InterruptedException {
+        long runStart = this.metrics.timer("tester.run").start();
+
+        // Create the wrapper file, and the case table from which it reads arguments
+        this.prepareTests();
+        try {
+            return this.runPreparedTests();
+        } finally {
+            // Clean up the pycache that was created, and stop any workers
+            this.cleanUpTests();
+            this.metrics.timer("tester.run").stop(runStart);
+        }
+    }
+
+    /**
+     * Runs all tests on all files, once prepareTests() has been called, and returns the
+     * results in the form of a TestResults object.
+     *
+     * @return the results of testing
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    private TestResults runPreparedTests() throws IOException, InterruptedException {
+        // Initialize the outputs
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            caseToFiles.add(new HashSet<>());
+        }
+        Set<Integer> wrongSet = new HashSet<>();
+        List<Set<Integer>> caseToTimeouts = new ArrayList<>();
+        List<Set<Integer>> caseToLimitBreaches = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            caseToTimeouts.add(new HashSet<>());
+            caseToLimitBreaches.add(new HashSet<>());
+        }
+
+        // Get the (sorted) list of implementations to be tested; the index of each
+        // file within this list is the index used to represent it in the results
+        List<String> filenames = this.getImplFilenames();
+
+        // Serve the results of any unchanged files from the cache, if there is one
+        List<UnitResult> fileResults = new ArrayList<>();
+        List<String> toRun = new ArrayList<>();
+        List<byte[]> implHashes = new ArrayList<>();
+        VerdictCache cache = null;
+        if (this.verdictCachePath != null) {
+            cache = new VerdictCache(this.verdictCachePath, this.getVerdictVersion());
+        }
+        int shardStart = 0;
+        int shardEnd = filenames.size();
+        if (this.fileShard != null) {
+            shardStart = this.fileShard.start(filenames.size());
+            shardEnd = this.fileShard.end(filenames.size());
+        }
+        for (int fileIndex = 0; fileIndex < filenames.size(); fileIndex++) {
+            String filename = filenames.get(fileIndex);
+            if (fileIndex < shardStart || fileIndex >= shardEnd) {
+                // Files outside of the shard aren't run at all
+                fileResults.add(new UnitResult());
+                implHashes.add(null);
+                continue;
+            }
+            Map<Integer, TestOutcome> cached = null;
+            if (cache != null) {
+                byte[] implHash = VerdictCache.hashFile(
+                        Paths.get(this.implDirPath, filename));
+                implHashes.add(implHash);
+                cached = cache.getOutcomes(implHash, this.tests);
+            }
+            if (cached != null) {
+                fileResults.add(this.replayOutcomes(cached));
+            } else {
+                fileResults.add(null);
+                toRun.add(filename);
+            }
+        }
+
+        // Test each remaining file using all tests in the base test set, keeping track
+        // of which test cases caught errors in each file
+        List<UnitResult> runResults = this.runTestsOnFiles(toRun, this.getCaseOrder());
+        int runIndex = 0;
+        for (int trueIndex = 0; trueIndex < filenames.size(); trueIndex++) {
+            if (fileResults.get(trueIndex) == null) {
+                UnitResult fileResult = runResults.get(runIndex++);
+                fileResults.set(trueIndex, fileResult);
+                if (cache != null) {
+                    cache.putAll(implHashes.get(trueIndex), this.tests,
+                            fileResult.outcomes(), this.getUnknownVerdicts(fileResult));
+                }
+            }
+        }
+
+        // Invert the per-file results to get the per-case results
+        OutcomeTable outcomes = new OutcomeTable(this.tests.size(), filenames.size());
+        for (int trueIndex = 0; trueIndex < filenames.size(); trueIndex++) {
+            Set<Integer> caughtBy = fileResults.get(trueIndex).caughtBy();
+            for (int testIndex : caughtBy) {
+                caseToFiles.get(testIndex).add(trueIndex);
+            }
+            for (int testIndex : fileResults.get(trueIndex).timedOut()) {
+                caseToTimeouts.get(testIndex).add(trueIndex);
+            }
+            for (int testIndex : fileResults.get(trueIndex).overLimit()) {
+                caseToLimitBreaches.get(testIndex).add(trueIndex);
+            }
+            for (Map.Entry<Integer, TestOutcome> entry
+                    : fileResults.get(trueIndex).outcomes().entrySet()) {
+                outcomes.put(entry.getKey(), trueIndex, entry.getValue());
+            }
+
+            // Add to wrongSet if applicable
+            if (caughtBy.size() > 0) {
+                wrongSet.add(trueIndex);
+            }
+        }
+
+        return new TestResults(this.tests, caseToFiles, wrongSet, caseToTimeouts,
+                caseToLimitBreaches, outcomes, this.failFast);
+    }
+
+    /**
+     * Returns the test cases run by this Tester.
+     *
+     * @return the list of test cases, in index order
+     */
+    public List<TestCase> getTests() {
+        return this.tests;
+    }
+
+    /**
+     * Prepares to run individual test cases on demand using runTestCase(), by creating
+     * the wrapper file and the case table (and compiling the implementations, if there is
+     * a bytecode cache); the expected results must already have been computed. The
+     * threads that supervise the runs (and, once it's first needed, the pool of workers)
+     * are shared by every run until cleanUpTests() is called, which must be done once
+     * finished.
+     *
+     * @return the number of implementations to be tested
+     * @throws IOException if the wrapper file or case table cannot be created, or the
+     *                     path to the directory of buggy implementations is invalid
+     * @throws InterruptedException if the process is interrupted
+     */
+    public int prepareTests() throws IOException, InterruptedException {
+        this.createWorkDir();
+        this.createWrapperFile();
+        this.writeCaseTable();
+        List<String> filenames = this.getImplFilenames();
+        if (this.bytecodeCachePath != null) {
+            this.precompile(filenames);
+        }
+        if (this.unitExecutor == null) {
+            this.unitExecutor = VirtualThreads.newExecutor(
+                    Math.max(this.concurrency, this.poolSize));
+        }
+        return filenames.size();
+    }
+
+    /**
+     * Compiles each of the given implementations into the bytecode cache, unless the
+     * cache already holds bytecode for its current contents. The bytecode is
+     * hash-checked, so Python verifies that it matches the implementation's source each
+     * time it's imported. Implementations that fail to compile are skipped; they fail
+     * when imported instead, just as without a cache.
+     *
+     * @param filenames the names of the implementations to be compiled
+     * @throws IOException if the cache directory cannot be created or Python cannot be
+     *                     run
+     * @throws InterruptedException if the process is interrupted
+     */
+    private void precompile(List<String> filenames)
+            throws IOException, InterruptedException {
+        Files.createDirectories(Paths.get(this.bytecodeCachePath));
+        StringBuilder sb = new StringBuilder();
+        sb.append("import sys, json, importlib.util, py_compile\n");
+        sb.append("sys.pycache_prefix = sys.argv[1]\n");
+        sb.append("for path in json.load(sys.stdin):\n");
+        sb.append("    cfile = importlib.util.cache_from_source(path)\n");
+        sb.append("    try:\n");
+        sb.append("        with open(path, 'rb') as source:\n");
+        sb.append("            source_hash = importlib.util.source_hash(source.read())\n");
+        sb.append("        with open(cfile, 'rb') as compiled:\n");
+        sb.append("            header = compiled.read(16)\n");
+        sb.append("        if header == importlib.util.MAGIC_NUMBER + " +
+                "(3).to_bytes(4, 'little') + source_hash:\n");
+        sb.append("            continue\n");
+        sb.append("    except OSError:\n");
+        sb.append("        pass\n");
+        sb.append("    try:\n");
+        sb.append("        py_compile.compile(path, cfile=cfile, doraise=True, " +
+                "invalidation_mode=py_compile.PycInvalidationMode.CHECKED_HASH)\n");
+        sb.append("    except Exception:\n");
+        sb.append("        pass\n");
+
+        // Send the paths via stdin, since there may be too many for the command line
+        JSONArray paths = new JSONArray();
+        for (String filename : filenames) {
+            paths.put(Paths.get(this.implDirPath, filename).toAbsolutePath().toString());
+        }
+        this.runWithInput(List.of("python3", "-c", sb.toString(), this.bytecodeCachePath),
+                paths.toString(), 0);
+    }
+
+    /**
+     * Runs a single test case on some of the implementations, which are represented by
+     * their indices (as in TestResults); prepareTests() must have been called first.
+     * This allows callers that don't need the full results of runTests() to run only
+     * the (test case, implementation) pairs that they need. The verdict cache is not
+     * consulted. In WORKER_POOL mode, the pool of workers is shared by every call until
+     * cleanUpTests(); in the other modes, each call runs the test case as the mode
+     * dictates (in BATCHED and FORK_SERVER modes, as a batch of one), so that no
+     * implementation keeps state from one call to the next.
+     *
+     * @param testIndex   the index of the test case to be run
+     * @param fileIndices the indices of the implementations on which to run it
+     * @return the indices of the implementations that the test case caught (including
+     * those that timed out)
+     * @throws IOException if the implementations cannot be run
+     * @throws InterruptedException if the process is interrupted
+     */
+    public Set<Integer> runTestCase(int testIndex, Set<Integer> fileIndices)
+            throws IOException, InterruptedException {
+        // Run the test case on the requested files, in index order
+        List<String> filenames = this.getImplFilenames();
+        List<Integer> sortedIndices = new ArrayList<>(fileIndices);
+        Collections.sort(sortedIndices);
+        List<String> toRun = new ArrayList<>();
+        for (int fileIndex : sortedIndices) {
+            toRun.add(filenames.get(fileIndex));
+        }
+        List<UnitResult> results = this.runTestsOnFiles(toRun, List.of(testIndex));
+
+        // Translate the results back into file indices
+        Set<Integer> caught = new HashSet<>();
+        for (int i = 0; i < sortedIndices.size(); i++) {
+            if (!results.get(i).caughtBy().isEmpty()) {
+                caught.add(sortedIndices.get(i));
+            }
+        }
+        return caught;
+    }
+
+    /**
+     * Cleans up after running test cases, by stopping the threads and workers that
+     * prepareTests() shared between the runs and deleting the pycache that was created.
+     *
+     * @throws IOException if a deletion operation fails
+     */
+    public void cleanUpTests() throws IOException {
+        if (this.unitExecutor != null) {
+            this.unitExecutor.shutdownNow();
+            this.unitExecutor = null;
+        }
+        try {
+            if (this.workerPool != null) {
+                this.workerPool.close();
+            }
+        } finally {
+            this.workerPool = null;
+            this.deletePyCache();
+        }
+    }
+
+    /**
+     * Returns the pool of workers shared by the runs since prepareTests() was called,
+     * starting it (and creating the worker file that it runs) if it hasn't been started
+     * yet.
+     *
+     * @return the pool of workers
+     * @throws IOException if the worker file cannot be created or a worker cannot be
+     *                     started
+     */
+    private PyWorkerPool getWorkerPool() throws IOException {
+        if (this.workerPool == null) {
+            long start = this.metrics.timer("tester.pool.start").start();
+            this.createWorkerFile();
+            List<String> command = new ArrayList<>(
+                    List.of("python3", this.getWorkDir() + "/" + WORKER_FILE));
+            command.addAll(this.getLimitOptions());
+            this.workerPool = new PyWorkerPool(command, this.poolSize);
+            this.metrics.timer("tester.pool.start").stop(start);
+        }
+        return this.workerPool;
+    }
+
+    /**
+     * Returns the sorted list of names of the implementations within the implementation
+     * directory, skipping non-Python files and the files generated by the Tester.
+     *
+     * @return the sorted list of implementation filenames
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     */
+    private List<String> getImplFilenames() throws IOException {
+        // Get the list of all files in the input directory; if implDirPath didn't
+        // actually point to a directory, filenames would be null
+        var dir = new File(this.implDirPath);
+        String[] filenames = dir.list();
+        if (filenames == null) {
+            throw new IOException("Error: implDir is empty");
+        }
+        Arrays.sort(filenames);
+
+        List<String> implFilenames = new ArrayList<>();
+        for (String filename : filenames) {
+            if (filename.endsWith(".py") && !GENERATED_FILES.contains(filename)) {
+                implFilenames.add(filename);
+            }
+        }
+        return implFilenames;
+    }
+
+    /**
+     * Rebuilds the results of running every test case on a file from the outcomes that
+     * were cached for it, exactly as a run would have recorded them: in fail-fast mode,
+     * only the outcomes up to (and including) the first failure in the case order are
+     * kept.
+     *
+     * @param outcomes the cached outcome of every test case, keyed by its index
+     * @return the results of the file
+     */
+    private UnitResult replayOutcomes(Map<Integer, TestOutcome> outcomes) {
+        UnitResult unitResult = new UnitResult();
+        for (int testIndex : this.getCaseOrder()) {
+            TestOutcome outcome = outcomes.get(testIndex);
+            unitResult.add(testIndex, outcome);
+            if (this.failFast && !outcome.passed()) {
+                break;
+            }
+        }
+        return unitResult;
+    }
+
+    /**
+     * Returns the indices of the test cases whose verdicts on a file are unknown after
+     * running it: those that timed out or exceeded a resource limit (either of which may
+     * depend on how busy the machine was), and (in fail-fast mode) those after the first
+     * failure in the case order, which were never run.
+     *
+     * @param fileResult the results of running the test cases on the file
+     * @return the indices of the test cases whose verdicts should not be cached
+     */
+    private Set<Integer> getUnknownVerdicts(UnitResult fileResult) {
+        Set<Integer> unknown = new HashSet<>(fileResult.timedOut());
+        unknown.addAll(fileResult.overLimit());
+        if (this.failFast) {
+            boolean stopped = false;
+            for (int testIndex : this.getCaseOrder()) {
+                if (stopped) {
+                    unknown.add(testIndex);
+                }
+                stopped = stopped || fileResult.caughtBy().contains(testIndex);
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * Returns the order in which test cases are run on each file.
+     *
+     * @return the indices of the test cases, in the order in which they are run
+     */
+    private List<Integer> getCaseOrder() {
+        if (this.caseOrder != null) {
+            return this.caseOrder;
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < this.tests.size(); i++) {
+            order.add(i);
+        }
+        return order;
+    }
+
+    /**
+     * Builds the version string under which verdicts are cached, which captures
+     * everything other than the implementation and the test case that a verdict depends
+     * on: the expected results, the function under test, and the settings that affect
+     * how the implementations are run (including the time limit, since a test case that
+     * passed under a long time limit may time out under a shorter one).
+     *
+     * @return the version string for the verdict cache
+     * @throws IOException if the expected results cannot be read
+     */
+    private String getVerdictVersion() throws IOException {
+        String expected = this.binaryExpected
+                ? HexFormat.of().formatHex(ExpectedResultsCache.sha256(Files.readAllBytes(
+                        Paths.get(this.getWorkDir(), "expected.dat"))))
+                : Files.readString(Paths.get(this.getWorkDir(), "expected.py"));
+        return String.join("\0", expected, this.funcName, this.mode.name(),
+                String.valueOf(this.timeoutMillis), String.valueOf(this.maxOutputBytes),
+                String.valueOf(this.maxMemoryBytes), String.valueOf(this.maxCpuSeconds));
+    }
+
+    /**
+     * Runs the test cases with the given indices, in order, on a single implementation,
+     * starting a separate process for each test case. In fail-fast mode, stops at the
+     * first test case that fails.
+     *
+     * @param filename    the name of the implementation being tested
+     * @param testIndices the indices of the test cases to be run
+     * @return the indices of the test cases that caught errors in (or timed out on)
+     * the file
+     * @throws IOException if the wrapper or the implementation cannot be run
+     * @throws InterruptedException if the process is interrupted
+     */
+    private UnitResult runTestsOnFile(String filename, List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        UnitResult unitResult = new UnitResult();
+        for (int testIndex : testIndices) {
+            if (this.failFast && !unitResult.caughtBy().isEmpty()) {
+                break;
+            }
+            List<String> args = this.getTestArgs(testIndex, filename);
+            long start = System.nanoTime();
+            try {
+                String result = this.runTestHelper(args, this.maxOutputBytes);
+                unitResult.add(testIndex, parseOutcome(result, start));
+            } catch (TimeoutException e) {
+                unitResult.add(testIndex, new TestOutcome(TestOutcome.Kind.TIMEOUT, null,
+                        System.nanoTime() - start));
+            }
+        }
+        return unitResult;
+    }
+
+    /**
+     * Runs the test cases with the given indices, in order, on a single implementation
+     * in batched fashion: one process imports the implementation once and runs every
+     * test case in the list (in FORK_SERVER mode, each in a forked child of that
+     * process). If that process dies partway through (e.g. because the implementation
+     * crashed the interpreter), the case that it was running is counted as a failure
+     * and a new batch is started with the following case, so that the results match
+     * running each case separately. In fail-fast mode, the batch stops at the first test
+     * case that fails.
+     *
+     * @param filename    the name of the implementation being tested
+     * @param testIndices the indices of the test cases to be run
+     * @return the indices of the test cases that caught errors in (or timed out on)
+     * the file
+     * @throws IOException if the wrapper or the implementation cannot be run
+     * @throws InterruptedException if the process is interrupted
+     */
+    private UnitResult runBatchesOnFile(String filename, List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        UnitResult unitResult = new UnitResult();
+        int start = 0;
+        int end = testIndices.size();
+        while (start < end) {
+            List<Integer> batch = testIndices.subList(start, end);
+            BatchOutput output = this.runWithInput(this.getBatchArgs(filename),
+                    this.getBatchCases(batch), this.getBatchLineTimeout());
+            List<String> verdicts = output.lines();
+            for (int offset = 0; offset < verdicts.size(); offset++) {
+                unitResult.add(batch.get(offset), parseOutcome(verdicts.get(offset), -1));
+            }
+            start += verdicts.size();
+
+            // In fail-fast mode, the batch stops as soon as a case fails
+            if (this.failFast && !unitResult.caughtBy().isEmpty()) {
+                break;
+            }
+
+            // If the batch ended early, the case that was running when it died (or was
+            // killed for running too long) failed
+            if (start < end) {
+                unitResult.add(testIndices.get(start), new TestOutcome(output.timedOut()
+                        ? TestOutcome.Kind.TIMEOUT : TestOutcome.Kind.CRASH, null, -1));
+                start++;
+                if (this.failFast) {
+                    break;
+                }
+            }
+        }
+        return unitResult;
+    }
+
+    /**
+     * Runs the test cases with the given indices through the solution within a single
+     * process, and returns the results that it reported.
+     *
+     * @param testIndices the indices of the test cases to be run, in order
+     * @return a list where the i-th element is the result of running the test case
+     * whose index is testIndices[i]; shorter than testIndices if the process died early
+     * @throws IOException if the solution cannot be run
+     * @throws InterruptedException if the process is interrupted
+     */
+    private List<String> runSolutionBatch(List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        // The solution's footer looks up the arguments of each case in the case table
+        BatchOutput output = this.runWithInput(
+                List.of("python3", this.getSolutionScript(), "--batch",
+                        this.getCaseTablePath()),
+                new JSONArray(testIndices).toString(), this.timeoutMillis);
+
+        // Each line of output is a JSON-encoded string holding one result
+        List<String> results = new ArrayList<>();
+        for (String line : output.lines()) {
+            results.add((String) new JSONTokener(line).nextValue());
+        }
+        return results;
+    }
+
+    /**
+     * Runs a Python process that handles a batch of test cases, sends it the given input
+     * via stdin, and returns the lines that it wrote to stdout (one per test case).
+     * Input is sent via stdin rather than argv, since a whole batch of arguments could
+     * easily exceed the limit on the length of a command line. If the process goes
+     * longer than the given time limit without finishing a line, it is killed (along
+     * with any processes that it started).
+     *
+     * @param args              the arguments for the process to be created
+     * @param input             the text to be written to the process's stdin
+     * @param lineTimeoutMillis the time limit for each line in milliseconds, or zero for
+     *                          no limit
+     * @return the complete lines that the process wrote to stdout, and whether it was
+     * killed for exceeding the time limit
+     * @throws IOException if the file to run or its output cannot be accessed
+     * @throws InterruptedException if the process is interrupted
+     */
+    private BatchOutput runWithInput(List<String> args, String input,
+                                     long lineTimeoutMillis)
+            throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder();
+        pb.command(args);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        long spawnStart = this.metrics.timer("tester.process.spawn").start();
+        Process process = pb.start();
+        this.metrics.timer("tester.process.spawn").stop(spawnStart);
+
+        // Write the input and read the output on separate threads, so that a process
+        // that stops reading its input (or never finishes a line) can't block us past
+        // the time limit; the reader signals the end of the output with an empty value
+        BlockingQueue<Optional<String>> lines = new LinkedBlockingQueue<>();
+        VirtualThreads.start(() -> {
+            try (var writer = new OutputStreamWriter(process.getOutputStream())) {
+                writer.write(input);
+            } catch (IOException e) {
+                // The process died before reading all of its input; whatever output it
+                // managed to produce is still read
+            }
+        });
+        VirtualThreads.start(() -> {
+            MeteredInputStream metered = new MeteredInputStream(
+                    process.getInputStream(), spawnStart);
+            try (var reader = new BufferedReader(new InputStreamReader(metered))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(Optional.of(line));
+                }
+            } catch (IOException e) {
+                // The process was killed; treat this as the end of its output
+            }
+            this.recordOutput(metered);
+            lines.add(Optional.empty());
+        });
+
+        // Gather lines until the output ends or a line takes too long
+        List<String> output = new ArrayList<>();
+        boolean timedOut = false;
+        try {
+            while (true) {
+                Optional<String> line = lineTimeoutMillis > 0
+                        ? lines.poll(lineTimeoutMillis, TimeUnit.MILLISECONDS)
+                        : lines.take();
+                if (line == null) {
+                    timedOut = true;
+                    break;
+                } else if (line.isEmpty()) {
+                    break;
+                }
+                output.add(line.get());
+            }
+        } finally {
+            Processes.killTree(process);
+        }
+        process.waitFor();
+        return new BatchOutput(output, timedOut);
+    }
+
+    /**
+     * Builds the list of command-line arguments for executing a batch of test cases on a
+     * buggy implementation; the cases themselves are supplied via stdin. In fail-fast
+     * mode, the wrapper is told to stop at the first failing case, and in FORK_SERVER
+     * mode, it is told the time limit to enforce on each of its children. It is also told
+     * the resource limits, if any.
+     *
+     * @param filename the name of the implementation being tested
+     * @return the command-line args for running a batch through the wrapper
+     */
+    private List<String> getBatchArgs(String filename) {
+        String command = (this.mode == ExecutionMode.FORK_SERVER) ? "--fork-server"
+                : "--batch";
+        List<String> args = new ArrayList<>(List.of("python3",
+                this.getWorkDir() + "/wrapper.py", command, filename, this.funcName));
+        if (this.failFast) {
+            args.add("--fail-fast");
+        }
+        if (this.mode == ExecutionMode.FORK_SERVER && this.timeoutMillis > 0) {
+            args.add("--timeout=" + this.timeoutMillis);
+        }
+        args.addAll(this.getLimitOptions());
+        return args;
+    }
+
+    /**
+     * Builds the options that tell the wrapper (or a worker) which resource limits to
+     * impose on the buggy implementations.
+     *
+     * @return the options for the resource limits that are set, if any
+     */
+    private List<String> getLimitOptions() {
+        List<String> options = new ArrayList<>();
+        if (this.maxMemoryBytes > 0) {
+            options.add("--max-memory=" + this.maxMemoryBytes);
+        }
+        if (this.maxCpuSeconds > 0) {
+            options.add("--max-cpu=" + this.maxCpuSeconds);
+        }
+        return options;
+    }
+
+    /**
+     * Parses the outcome record reported by the wrapper or a worker. A record that can't
+     * be parsed (e.g. because the process died before reporting one) is a crash.
+     *
+     * @param record the record reported for a test case
+     * @param start  the value of System.nanoTime() when the test case was started, used
+     *               as the elapsed time of a crash; -1 if unknown
+     * @return the outcome of the test case
+     */
+    private static TestOutcome parseOutcome(String record, long start) {
+        TestOutcome outcome = TestOutcome.parse(record);
+        if (outcome == null) {
+            outcome = new TestOutcome(TestOutcome.Kind.CRASH, null,
+                    (start < 0) ? -1 : System.nanoTime() - start);
+        }
+        return outcome;
     }
 
     /**
-     * Computes the expected results by running each test case on the solution file.
-     * Stores the results in a list (which is returned) and also creates a .py file
-     * containing an equivalent list of the results.
+     * Returns the time limit for each line of output from a batch. In FORK_SERVER mode,
+     * the server enforces the time limit on each of its children itself (and reports
+     * those that exceed it), so the server as a whole is only killed if it stops
+     * responding for well past the time limit.
      *
-     * @return a list where the i-th element is the result (a string) of running the i-th
-     * test case on the reference solution
-     * @throws IOException if the path to the solution is invalid
-     * @throws InterruptedException if the process is interrupted
+     * @return the time limit for each line of a batch's output in milliseconds, or zero
+     * for no limit
      */
-    public List<String> computeExpectedResults() throws IOException, InterruptedException {
-        // Write an appropriate footer to the solution file to make it executable from
-        // the command-line, if the footer doesn't exist already
-        this.appendToSolution();
-
-        // Run each test case on the solution file and gather the results in a map
-        List<String> results = new ArrayList<>();
-        for (int i = 0; i < this.tests.size(); i++) {
-            List<String> args = this.getExpTestArgs(i);
-            String result = this.runTestHelper(args);
-            results.add(result);
+    private long getBatchLineTimeout() {
+        if (this.mode == ExecutionMode.FORK_SERVER && this.timeoutMillis > 0) {
+            return 2 * this.timeoutMillis + FORK_SERVER_GRACE_MILLIS;
         }
+        return this.timeoutMillis;
+    }
 
-        // Write the expected results to a .py file, so that they can be accessed via
-        // the wrapper. These cached results allow us to only run the solution once per
-        // test rather than having to run it once per test per buggy implementation.
-        this.outputExpectedResults(results);
-
-        // Return the results
-        return results;
+    /**
+     * Builds the input for a batch of test cases: a JSON list of case indices, whose
+     * arguments the wrapper will look up in the case table.
+     *
+     * @param testIndices the indices of the test cases in the batch, in order
+     * @return the input for the batch, encoded as JSON
+     */
+    private String getBatchCases(List<Integer> testIndices) {
+        return new JSONArray(testIndices).toString();
     }
 
     /**
-     * Runs all tests on all files in the directory of buggy implementations, comparing
-     * the outputs to the pre-generated expected results and returning the results in the
-     * form of a TestResults object.
+     * Runs each of the given test cases on each implementation. The work is split into
+     * units, each of which runs a contiguous range of the test cases on a single
+     * implementation; files
+     * are split into more than one unit only when there are fewer files than threads
+     * (and never in fail-fast mode, where each file stops at its first failure). Each
+     * unit is supervised by its own virtual thread when the runtime supports them (or
+     * by one of a fixed pool of platform threads otherwise), but a semaphore ensures that
+     * at most concurrency units (or one unit per worker, in WORKER_POOL mode) run at
+     * once, and hence bounds the number of live Python processes independently of the
+     * number of JVM threads. The units' results are merged in filename order, so the
+     * results don't depend on the order in which the units finish.
      *
-     * @return the results of testing
-     * @throws IOException if the path to the directory of buggy implementations is
-     *                     invalid
-     * @throws InterruptedException if the process is interrupted
+     * @param filenames   the names of the implementations being tested
+     * @param testIndices the indices of the test cases to be run, in order
+     * @return a list where the i-th element holds the indices of the test cases that
+     * caught errors in (or timed out on) the i-th file
+     * @throws IOException if the implementations cannot be run
+     * @throws InterruptedException if interrupted while waiting for the results
+     * @throws IllegalStateException if prepareTests() hasn't been called
      */
-    public TestResults runTests() throws IOException, InterruptedException {
-        // Create the wrapper file
-        this.createWrapperFile();
+    private List<UnitResult> runTestsOnFiles(List<String> filenames,
+                                             List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        if (this.unitExecutor == null) {
+            throw new IllegalStateException("prepareTests() must be called first");
+        }
 
-        // Initialize the outputs
-        List<Set<Integer>> caseToFiles = new ArrayList<>();
-        for (int i = 0; i < this.tests.size(); i++) {
-            caseToFiles.add(new HashSet<>());
+        // Don't start any processes if there's nothing to run
+        if (filenames.isEmpty()) {
+            return new ArrayList<>();
         }
-        Set<Integer> wrongSet = new HashSet<>();
 
-        // Get the list of all files in the input directory
-        var dir = new File(this.implDirPath);
-        String[] filenames = dir.list();
-        if (filenames == null) {
-            throw new IOException("Error: implDir is empty");
+        // In WORKER_POOL mode, the workers are started by the first run that needs them,
+        // and shared by all units of every run until cleanUpTests() is called
+        boolean pooled = (this.mode == ExecutionMode.WORKER_POOL);
+        final PyWorkerPool workers = pooled ? this.getWorkerPool() : null;
+        int threads = pooled ? this.poolSize : this.concurrency;
+
+        // Split each file's test cases into enough chunks to keep every thread busy
+        List<Integer> order = testIndices;
+        int numFiles = Math.max(filenames.size(), 1);
+        int chunksPerFile = this.failFast ? 1 : (threads + numFiles - 1) / numFiles;
+        int chunkSize = Math.max((order.size() + chunksPerFile - 1) / chunksPerFile, 1);
+
+        // Each unit holds a permit for as long as it runs, and runs at most one Python
+        // process at a time, so the permits cap the number of live processes
+        Semaphore permits = new Semaphore(threads, true);
+        List<Future<UnitResult>> futures = new ArrayList<>();
+        try {
+            // Submit every unit, remembering which file each one belongs to
+            List<Integer> owners = new ArrayList<>();
+            for (int fileIndex = 0; fileIndex < filenames.size(); fileIndex++) {
+                String filename = filenames.get(fileIndex);
+                for (int start = 0; start < order.size(); start += chunkSize) {
+                    List<Integer> unit = order.subList(start,
+                            Math.min(start + chunkSize, order.size()));
+                    futures.add(this.unitExecutor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            return this.runTestUnit(workers, filename, unit);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                    owners.add(fileIndex);
+                }
+            }
+
+            // Gather the results in filename order
+            List<UnitResult> fileResults = new ArrayList<>();
+            for (int fileIndex = 0; fileIndex < filenames.size(); fileIndex++) {
+                fileResults.add(new UnitResult());
+            }
+            for (int unit = 0; unit < futures.size(); unit++) {
+                UnitResult unitResult = awaitResult(futures.get(unit));
+                UnitResult fileResult = fileResults.get(owners.get(unit));
+                fileResult.addAll(unitResult);
+            }
+            return fileResults;
+        } finally {
+            // Stop any units that are still running if the results weren't all gathered
+            for (Future<UnitResult> future : futures) {
+                future.cancel(true);
+            }
         }
-        Arrays.sort(filenames);
+    }
 
-        // If implDirPath didn't actually point to a directory, files would be null
-        int trueIndex = 0;
+    /**
+     * Runs the test cases with the given indices, in order, on a single implementation,
+     * using the strategy dictated by the execution mode.
+     *
+     * @param pool        the pool of workers to use in WORKER_POOL mode; null otherwise
+     * @param filename    the name of the implementation being tested
+     * @param testIndices the indices of the test cases to be run
+     * @return the indices of the test cases that caught errors in (or timed out on) the
+     * file
+     * @throws IOException if the implementation cannot be run
+     * @throws InterruptedException if interrupted while running the test cases
+     */
+    private UnitResult runTestUnit(PyWorkerPool pool, String filename,
+                                   List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        UnitResult unitResult = switch (this.mode) {
+            case WORKER_POOL -> this.runTestsOnWorker(pool, filename, testIndices);
+            case BATCHED, FORK_SERVER -> this.runBatchesOnFile(filename, testIndices);
+            default -> this.runTestsOnFile(filename, testIndices);
+        };
 
-        // Test each individual file using all tests in the base test set
-        for (String filename : filenames) {
-            if (!filename.endsWith(".py") || filename.equals("wrapper.py")
-                    || filename.equals("expected.py")) {
-                continue;
+        // Record how each test case went
+        for (TestOutcome outcome : unitResult.outcomes().values()) {
+            this.metrics.counter("tester.outcome." +
+                    outcome.kind().name().toLowerCase()).increment();
+            if (outcome.elapsedNanos() >= 0) {
+                this.metrics.timer("tester.case.run").record(outcome.elapsedNanos());
             }
+        }
+        return unitResult;
+    }
 
-            // Run each test case on this file, keeping track of which ones caught
-            // errors
-            HashSet<Integer> caughtBy = new HashSet<>();
-            for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
-                List<String> args = this.getTestArgs(testIndex, filename);
-                String result = this.runTestHelper(args);
-                if (!result.equals("True")) {
-                    caseToFiles.get(testIndex).add(trueIndex);
-                    caughtBy.add(testIndex);
+    /**
+     * Runs the test cases with the given indices, in order, on a single implementation
+     * using a worker checked out from the given pool. In fail-fast mode, stops at the
+     * first test case that fails.
+     *
+     * @param pool        the pool from which to check out a worker
+     * @param filename    the name of the implementation being tested
+     * @param testIndices the indices of the test cases to be run
+     * @return the indices of the test cases that caught errors in (or timed out on) the
+     * file
+     * @throws IOException if the worker cannot be communicated with
+     * @throws InterruptedException if interrupted while waiting for a worker
+     */
+    private UnitResult runTestsOnWorker(PyWorkerPool pool, String filename,
+                                        List<Integer> testIndices)
+            throws IOException, InterruptedException {
+        PyWorker worker = pool.acquire();
+        try {
+            UnitResult unitResult = new UnitResult();
+            for (int testIndex : testIndices) {
+                if (this.failFast && !unitResult.caughtBy().isEmpty()) {
+                    break;
+                }
+                long start = System.nanoTime();
+                try {
+                    String result = worker.request(
+                            this.getWorkerRequest(testIndex, filename), this.timeoutMillis);
+                    unitResult.add(testIndex, parseOutcome(result, start));
+                } catch (TimeoutException e) {
+                    unitResult.add(testIndex, new TestOutcome(TestOutcome.Kind.TIMEOUT,
+                            null, System.nanoTime() - start));
                 }
             }
+            return unitResult;
+        } finally {
+            pool.release(worker);
+        }
+    }
 
-            // Add to wrongSet if applicable
-            if (caughtBy.size() > 0) {
-                wrongSet.add(trueIndex);
-            }
-            trueIndex++;
+    /**
+     * Records how long a process took to produce its first output, and how much output
+     * it produced in all.
+     *
+     * @param output the process's output, once it has been read
+     */
+    private void recordOutput(MeteredInputStream output) {
+        if (output.getFirstByteNanos() >= 0) {
+            this.metrics.timer("tester.process.first_output").record(
+                    output.getFirstByteNanos() - output.getStartNanos());
         }
+        this.metrics.histogram("tester.process.output_bytes").record(output.getBytes());
+    }
 
-        // Clean up the pycache that was created
-        this.deletePyCache();
+    /**
+     * Waits for the given task to finish and returns its result, rethrowing any
+     * IOException or InterruptedException that the task threw.
+     *
+     * @param future the task to wait for
+     * @param <T>    the type of the task's result
+     * @return the result of the task
+     * @throws IOException if the task threw an IOException
+     * @throws InterruptedException if the task (or the wait) was interrupted
+     */
+    private static <T> T awaitResult(Future<T> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof InterruptedException interruptedException) {
+                throw interruptedException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
 
-        // Return the results
-        return new TestResults(this.tests, caseToFiles, wrongSet);
+    /**
+     * Builds the request that asks a worker to run a single test case on a buggy
+     * implementation.
+     *
+     * @param testIndex the index of the test case to be run
+     * @param filename  the name of the implementation being tested
+     * @return the request, encoded as a JSON object
+     */
+    private String getWorkerRequest(int testIndex, String filename) {
+        // The worker looks up the arguments in the case table, exactly as the wrapper
+        // does
+        JSONObject request = new JSONObject();
+        request.put("case", testIndex);
+        request.put("impl", filename);
+        request.put("func", this.funcName);
+        return request.toString();
     }
 
     /**
@@ -162,14 +1524,13 @@ public class Tester {
 
         // The solution must be a python3 file
         args.add("python3");
-        args.add(this.solutionPath);
+        args.add(this.getSolutionScript());
 
-        // Add each argument as a string; the footer will take care of converting these to
-        // Python objects before invoking the function under test
-        TestCase test = this.tests.get(testIndex);
-        for (APyObj arg : test.getArgs()) {
-            args.add(arg.toString());
-        }
+        // Only the index of the test case is passed; the footer will look up its
+        // arguments in the case table and convert them to Python objects before invoking
+        // the function under test
+        args.add(this.getCaseTablePath());
+        args.add(String.valueOf(testIndex));
         return args;
     }
 
@@ -188,65 +1549,94 @@ public class Tester {
         args.add("python3");
 
         // Directly invoking the wrapper, which will dynamically load the file under test
-        args.add(this.implDirPath + "/wrapper.py");
+        args.add(this.getWorkDir() + "/wrapper.py");
 
         // Need to include the index of the test case so that we can look up the expected
         // results to determine whether the test passes or fails
         args.add(String.valueOf(testIndex));
 
         // Also need to know which file we're testing and which function to invoke within
-        // the file under test
+        // the file under test; the wrapper will look up the arguments themselves in the
+        // case table, using the index of the test case
         args.add(filename);
         args.add(this.funcName);
 
-        // Add each argument as a string; the footer will take care of converting these to
-        // Python objects before invoking the function under test
-        TestCase test = this.tests.get(testIndex);
-        for (APyObj arg : test.getArgs()) {
-            args.add(arg.toString());
-        }
+        // Finally, the wrapper needs to know which resource limits to impose
+        args.addAll(this.getLimitOptions());
         return args;
     }
 
     /**
      * A helper function for runTest and runExpTest which runs a Python process (using a
      * list of arguments, as output by getTestArgs or getExpTestArgs) and reads its
-     * output.
+     * output. The output is drained while the process runs (rather than after it exits),
+     * so a process that prints more than the OS pipe buffer can't deadlock; stderr is
+     * discarded for the same reason.
      *
-     * @param args the arguments for the process to be created
+     * @param args         the arguments for the process to be created
+     * @param maxLineBytes the maximum number of bytes of the last line to capture
      * @return the result of reading from the process
      * @throws IOException if the file to run or its output cannot be accessed
      * @throws InterruptedException if the process is interrupted
+     * @throws TimeoutException if the process was killed for exceeding the time limit
      */
-    private String runTestHelper(List<String> args) throws IOException, InterruptedException {
+    private String runTestHelper(List<String> args, int maxLineBytes)
+            throws IOException, InterruptedException, TimeoutException {
         ProcessBuilder pb = new ProcessBuilder();
         pb.command(args);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        long spawnStart = this.metrics.timer("tester.process.spawn").start();
         Process process = pb.start();
+        this.metrics.timer("tester.process.spawn").stop(spawnStart);
+
+        // Kill the process (and anything it started) if it runs for too long; this also
+        // ends its output, which unblocks the read below
+        ScheduledFuture<?> watchdog = null;
+        if (this.timeoutMillis > 0) {
+            watchdog = Processes.killAfter(process, this.timeoutMillis);
+        }
 
-        // Redirect the output of the process to here
-        var sb = new StringBuilder();
-        var reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        // Read the output of the process as it's produced, keeping only the last line,
+        // which should be the result
+        String lastLine;
+        try (MeteredInputStream output = new MeteredInputStream(
+                process.getInputStream(), spawnStart)) {
+            try {
+                lastLine = Processes.readLastLine(output, maxLineBytes);
+            } finally {
+                this.recordOutput(output);
+            }
+        } catch (IOException e) {
+            // Killing the process may close its output while we're still reading it
+            if (watchdog != null && !watchdog.cancel(false)) {
+                throw new TimeoutException("test exceeded " + this.timeoutMillis + " ms");
+            }
+            throw e;
+        }
 
         // Wait until the process has exited
         process.waitFor();
-
-        // Read the output of the process, the last line of which should be the result
-        String line;
-        String prevLine = "";
-        while ((line = reader.readLine()) != null) {
-            prevLine = line;
+        if (watchdog != null && !watchdog.cancel(false)) {
+            throw new TimeoutException("test exceeded " + this.timeoutMillis + " ms");
         }
-        reader.close();
 
         // Return the result
-        return prevLine;
+        return lastLine;
     }
 
     /**
      * Creates a wrapper file that imports the expected results, reads the command-line
      * args, dynamically imports the buggy implementation, generates the actual results
      * for a single test case, compares the returned value to the expected value, and then
-     * returns a boolean value (True if test passes, False otherwise).
+     * prints an outcome record (as produced by run_limited(), and parsed by
+     * TestOutcome.parse()). When invoked with --batch, the wrapper instead reads a list
+     * of case indices from stdin, imports the implementation once, and prints one record
+     * per case, flushing after each so that a crash mid-batch still reports every case
+     * that finished. When invoked with --fork-server, the wrapper behaves as with
+     * --batch, except that each case runs in a fresh child forked from the process that
+     * imported the implementation; a child that exceeds the time limit is killed and
+     * reported as a timeout ('T'), and one that dies without reporting as a crash ('X').
+     * Either way, the arguments of each case are loaded from the case table.
      *
      * @throws IOException if the wrapper file cannot be created
      */
@@ -254,8 +1644,25 @@ public class Tester {
         StringBuilder sb = new StringBuilder();
 
         // Import the expected results, plus the other modules we'll need
-        sb.append("import sys\nfrom importlib import import_module\nfrom expected " +
-                "import results\n\n");
+        sb.append("import os\nimport sys\nimport json\nimport mmap\nimport struct\n" +
+                "import select\nimport signal\nimport time\n" +
+                "from importlib import import_module\n");
+        this.appendPathSetup(sb);
+        if (!this.binaryExpected) {
+            sb.append("from expected import results\n");
+        }
+        this.appendBytecodeSetup(sb);
+        sb.append("\n");
+
+        // Function for loading the arguments of a test case from the case table, which
+        // sits next to the wrapper
+        sb.append("CASE_TABLE = os.path.join(os.path.dirname(os.path.abspath(__file__)), " +
+                "'cases.dat')\n\n");
+        appendCaseLoader(sb);
+        this.appendExpectedLoader(sb);
+
+        // Functions for imposing resource limits on the implementation
+        appendLimitRunner(sb);
 
         // Function for comparing the buggy implementation's results to the
         // pre-determined expected results
@@ -267,30 +1674,206 @@ public class Tester {
         sb.append("    expected = results[case_num]\n");
         sb.append("    return (actual == expected)\n\n");
 
+        // Function for running a batch of cases on one implementation; keeps a private
+        // copy of stdout for the verdicts and points the real one at /dev/null so that
+        // anything the implementation prints is discarded
+        sb.append("def run_batch(impl_name, fname, cases, fail_fast):\n");
+        sb.append("    verdicts = os.fdopen(os.dup(1), 'w')\n");
+        sb.append("    devnull = os.open(os.devnull, os.O_RDWR)\n");
+        sb.append("    os.dup2(devnull, 0)\n");
+        sb.append("    os.dup2(devnull, 1)\n");
+        sb.append("    for case_num in cases:\n");
+        sb.append("        verdict = run_limited(lambda: str(test_buggy_impl(case_num, " +
+                "impl_name, fname, load_case(CASE_TABLE, case_num))) == 'True')\n");
+        sb.append("        verdicts.write(verdict + '\\n')\n");
+        sb.append("        verdicts.flush()\n");
+        sb.append("        if fail_fast and verdict[0] != '1':\n");
+        sb.append("            break\n\n");
+
+        // Function for running a single case in a forked child of the fork server. The
+        // child reports its verdict through a pipe, so a child that dies without
+        // reporting fails; it runs in its own process group, so that it can be killed
+        // along with anything it started
+        sb.append("def run_forked(case_num, impl_name, fname, timeout):\n");
+        sb.append("    read_end, write_end = os.pipe()\n");
+        sb.append("    pid = os.fork()\n");
+        sb.append("    if pid == 0:\n");
+        sb.append("        os.close(read_end)\n");
+        sb.append("        os.setpgid(0, 0)\n");
+        sb.append("        verdict = run_limited(lambda: str(test_buggy_impl(case_num, " +
+                "impl_name, fname, load_case(CASE_TABLE, case_num))) == 'True')\n");
+        sb.append("        os.write(write_end, verdict.encode())\n");
+        sb.append("        os._exit(0)\n");
+        sb.append("    os.close(write_end)\n");
+        sb.append("    try:\n");
+        sb.append("        os.setpgid(pid, pid)\n");
+        sb.append("    except OSError:\n");
+        sb.append("        pass\n");
+        sb.append("    start = time.perf_counter_ns()\n");
+        sb.append("    ready, _, _ = select.select([read_end], [], [], timeout)\n");
+        sb.append("    elapsed = str(time.perf_counter_ns() - start)\n");
+        sb.append("    verdict = (os.read(read_end, 4096).decode() or 'X ' + elapsed) " +
+                "if ready else 'T ' + elapsed\n");
+        sb.append("    os.close(read_end)\n");
+        sb.append("    try:\n");
+        sb.append("        os.killpg(pid, signal.SIGKILL)\n");
+        sb.append("    except OSError:\n");
+        sb.append("        pass\n");
+        sb.append("    os.waitpid(pid, 0)\n");
+        sb.append("    return verdict\n\n");
+
+        // Function for running a batch of cases as a fork server: imports the
+        // implementation once, then forks a fresh child for each case, so that every case
+        // starts from the same warm state. Prints one line per case, as in run_batch,
+        // except that 'T' reports a child that exceeded the time limit
+        sb.append("def run_fork_server(impl_name, fname, cases, fail_fast, timeout):\n");
+        sb.append("    verdicts = os.fdopen(os.dup(1), 'w')\n");
+        sb.append("    devnull = os.open(os.devnull, os.O_RDWR)\n");
+        sb.append("    os.dup2(devnull, 0)\n");
+        sb.append("    os.dup2(devnull, 1)\n");
+        sb.append("    try:\n");
+        sb.append("        import_module(impl_name[:-3])\n");
+        sb.append("    except BaseException:\n");
+        sb.append("        pass\n");
+        sb.append("    for case_num in cases:\n");
+        sb.append("        verdict = run_forked(case_num, impl_name, fname, timeout)\n");
+        sb.append("        verdicts.write(verdict + '\\n')\n");
+        sb.append("        verdicts.flush()\n");
+        sb.append("        if fail_fast and verdict[0] != '1':\n");
+        sb.append("            break\n\n");
+
         // Footer to make the function executable from the command line
         sb.append("if __name__ == \"__main__\":\n");
+        sb.append("    if sys.argv[1] == '--batch':\n");
+        sb.append("        apply_limits(sys.argv[4:])\n");
+        sb.append("        run_batch(sys.argv[2], sys.argv[3], json.load(sys.stdin), " +
+                "'--fail-fast' in sys.argv[4:])\n");
+        sb.append("        sys.exit(0)\n");
+        sb.append("    if sys.argv[1] == '--fork-server':\n");
+        sb.append("        timeout = None\n");
+        sb.append("        for option in sys.argv[4:]:\n");
+        sb.append("            if option.startswith('--timeout='):\n");
+        sb.append("                timeout = int(option[len('--timeout='):]) / 1000\n");
+        sb.append("        apply_limits(sys.argv[4:])\n");
+        sb.append("        run_fork_server(sys.argv[2], sys.argv[3], json.load(sys.stdin), " +
+                "'--fail-fast' in sys.argv[4:], timeout)\n");
+        sb.append("        sys.exit(0)\n");
         sb.append("    case_num = int(sys.argv[1])\n");
         sb.append("    impl_name = sys.argv[2]\n");
         sb.append("    fname = sys.argv[3]\n");
-        sb.append("    args = sys.argv[4:]\n");
-        sb.append("    args = [eval(arg) for arg in args]\n");
-        sb.append("    print (test_buggy_impl(case_num, impl_name, fname, args))");
+        sb.append("    apply_limits(sys.argv[4:])\n");
+        sb.append("    verdict = run_limited(lambda: str(test_buggy_impl(case_num, " +
+                "impl_name, fname, load_case(CASE_TABLE, case_num))) == 'True')\n");
+        sb.append("    print (verdict)");
         String wrapperContents = sb.toString();
 
         // Create the Python wrapper file including the above code
-        FileWriter writer = new FileWriter(this.implDirPath + "/wrapper.py");
+        FileWriter writer = new FileWriter(this.getWorkDir() + "/wrapper.py");
         writer.write(wrapperContents);
         writer.close();
     }
 
     /**
-     * Writes a footer to the solution file which converts the command-line args from
-     * strings into Python objects of the appropriate type, calls the function under test
-     * with arguments, and prints the result.
+     * Creates a worker file that imports the expected results and then repeatedly reads
+     * requests (framed as a four-byte big-endian length followed by a JSON object) from
+     * stdin, runs the requested test case (whose arguments are loaded from the case
+     * table) on the requested buggy implementation, and
+     * writes back a framed outcome record (as produced by run_limited()).
+     * Each implementation is imported at most once per worker. Anything that the
+     * implementations print is discarded, so that it can't corrupt the protocol.
+     *
+     * @throws IOException if the worker file cannot be created
+     */
+    private void createWorkerFile() throws IOException {
+        StringBuilder sb = new StringBuilder();
+
+        // Import the expected results, plus the other modules we'll need
+        sb.append("import os\nimport sys\nimport json\nimport mmap\nimport struct\n" +
+                "import signal\nimport time\n");
+        sb.append("from importlib import import_module\n");
+        this.appendPathSetup(sb);
+        if (!this.binaryExpected) {
+            sb.append("from expected import results\n");
+        }
+        this.appendBytecodeSetup(sb);
+        sb.append("\n");
+
+        // Function for loading the arguments of a test case from the case table, which
+        // sits next to the worker
+        sb.append("CASE_TABLE = os.path.join(os.path.dirname(os.path.abspath(__file__)), " +
+                "'cases.dat')\n\n");
+        appendCaseLoader(sb);
+        this.appendExpectedLoader(sb);
+
+        // Functions for imposing resource limits on the implementations
+        appendLimitRunner(sb);
+
+        // Functions for reading and writing frames
+        sb.append("def read_frame(stream):\n");
+        sb.append("    header = stream.read(4)\n");
+        sb.append("    if len(header) < 4:\n");
+        sb.append("        return None\n");
+        sb.append("    (length,) = struct.unpack('>I', header)\n");
+        sb.append("    return stream.read(length).decode('utf-8')\n\n");
+        sb.append("def write_frame(stream, payload):\n");
+        sb.append("    data = payload.encode('utf-8')\n");
+        sb.append("    stream.write(struct.pack('>I', len(data)) + data)\n");
+        sb.append("    stream.flush()\n\n");
+
+        // Function for comparing the buggy implementation's results to the
+        // pre-determined expected results, importing each implementation only once
+        sb.append("modules = {}\n\n");
+        sb.append("def test_buggy_impl(case_num, impl_name, fname):\n");
+        sb.append("    if impl_name not in modules:\n");
+        sb.append("        modules[impl_name] = import_module(impl_name[:-3])\n");
+        sb.append("    func = getattr(modules[impl_name], fname)\n");
+        sb.append("    actual = func(*load_case(CASE_TABLE, case_num))\n");
+        sb.append("    return str(actual == results[case_num]) == 'True'\n\n");
+
+        // Main loop; keep private copies of stdin and stdout for the protocol, and
+        // point the real ones at /dev/null so that the implementations can't touch them
+        sb.append("if __name__ == \"__main__\":\n");
+        sb.append("    requests = os.fdopen(os.dup(0), 'rb')\n");
+        sb.append("    responses = os.fdopen(os.dup(1), 'wb')\n");
+        sb.append("    devnull = os.open(os.devnull, os.O_RDWR)\n");
+        sb.append("    os.dup2(devnull, 0)\n");
+        sb.append("    os.dup2(devnull, 1)\n");
+        sb.append("    apply_limits(sys.argv[1:])\n");
+        sb.append("    while True:\n");
+        sb.append("        frame = read_frame(requests)\n");
+        sb.append("        if frame is None:\n");
+        sb.append("            break\n");
+        sb.append("        req = json.loads(frame)\n");
+        sb.append("        verdict = run_limited(lambda: test_buggy_impl(req['case'], " +
+                "req['impl'], req['func']))\n");
+        sb.append("        write_frame(responses, verdict)");
+        String workerContents = sb.toString();
+
+        // Create the Python worker file including the above code
+        FileWriter writer = new FileWriter(this.getWorkDir() + "/" + WORKER_FILE);
+        writer.write(workerContents);
+        writer.close();
+    }
+
+    /**
+     * Writes a footer to the solution file which loads a test case's arguments from the
+     * case table (given the table's path and the case's index on the command line),
+     * calls the function under test with those arguments, and prints the result. When
+     * invoked with --batch, the footer instead reads a list of case indices from stdin
+     * and prints the result of each on its own line (as a JSON-encoded string),
+     * flushing after each one. The footer starts with a marker line, so that it can be
+     * told apart from the solution itself when it is replaced.
+     * <p>
+     * Given a separate working directory, the solution file is left untouched: the
+     * footer is written to a runner in the working directory instead, which loads the
+     * solution (with the solution's own directory first on the path, as if it were run
+     * directly) before the footer runs. This keeps concurrent runs on the same solution
+     * from racing to rewrite it.
      *
+     * @return the contents of the solution file, excluding the footer
      * @throws IOException if the solution file cannot be accessed
      */
-    private void appendToSolution() throws IOException {
+    private String appendToSolution() throws IOException {
         // Read the contents of the solution
         StringBuilder sb = new StringBuilder();
         BufferedReader reader = new BufferedReader(new FileReader(this.solutionPath));
@@ -301,46 +1884,399 @@ public class Tester {
         String contents = sb.toString();
         reader.close();
 
-        // Generate the footer, which converts the command-line args from strings into
-        // Python objects of the appropriate types, calls the function under test with
-        // these arguments, and prints the result
+        // Generate the footer, which loads the arguments from the case table, calls the
+        // function under test with these arguments, and prints the result
         sb = new StringBuilder();
-        sb.append("import sys\n\n");
+        sb.append("import sys\nimport os\nimport json\nimport mmap\nimport struct\n\n");
+        appendCaseLoader(sb);
+
+        // Function for running a batch of cases; keeps a private copy of stdout for the
+        // results and points the real one at /dev/null so that anything the solution
+        // prints is discarded
+        sb.append("def run_expected_batch(table_path, cases):\n");
+        sb.append("    results = os.fdopen(os.dup(1), 'w')\n");
+        sb.append("    devnull = os.open(os.devnull, os.O_RDWR)\n");
+        sb.append("    os.dup2(devnull, 0)\n");
+        sb.append("    os.dup2(devnull, 1)\n");
+        sb.append("    for case_num in cases:\n");
+        sb.append("        try:\n");
+        sb.append("            new_args = load_case(table_path, case_num)\n");
+        sb.append("            result = repr(").append(this.funcName)
+                .append("(*new_args))\n");
+        sb.append("        except BaseException:\n");
+        sb.append("            result = ''\n");
+        sb.append("        results.write(json.dumps(result) + '\\n')\n");
+        sb.append("        results.flush()\n\n");
+
         sb.append("if __name__ == \"__main__\":\n");
-        sb.append("    args = sys.argv[1:]\n");
-        sb.append("    new_args = [eval(arg) for arg in args]\n");
+        sb.append("    if len(sys.argv) > 1 and sys.argv[1] == '--batch':\n");
+        sb.append("        run_expected_batch(sys.argv[2], json.load(sys.stdin))\n");
+        sb.append("        sys.exit(0)\n");
+        sb.append("    new_args = load_case(sys.argv[1], int(sys.argv[2]))\n");
         sb.append("    print (repr(").append(this.funcName).append("(*new_args)))");
         String textToAdd = sb.toString();
 
-        if (!contents.contains("import sys")) {
-            // If no footer is present, append it to the file
-            FileWriter writer = new FileWriter(this.solutionPath, true);
-            writer.write("\n");
+        if (this.workDirPath != null) {
+            // Load the solution's definitions into the runner, and then add the footer
+            Path solution = Paths.get(this.solutionPath).toAbsolutePath();
+            String moduleName = solution.getFileName().toString().replaceFirst(
+                    "\\.py$", "");
+            FileWriter writer = new FileWriter(this.getSolutionScript());
+            writer.write("import sys\nimport importlib.machinery\n" +
+                    "import importlib.util\n\n");
+            writer.write("sys.path[0] = " + toPyString(solution.getParent().toString())
+                    + "\n");
+            writer.write("sys.dont_write_bytecode = True\n");
+            writer.write("loader = importlib.machinery.SourceFileLoader(" +
+                    toPyString(moduleName) + ", " + toPyString(solution.toString()) +
+                    ")\n");
+            writer.write("spec = importlib.util.spec_from_loader(loader.name, loader)\n");
+            writer.write("solution = importlib.util.module_from_spec(spec)\n");
+            writer.write("sys.modules[spec.name] = solution\n");
+            writer.write("spec.loader.exec_module(solution)\n");
+            writer.write("globals().update({name: value for name, value " +
+                    "in vars(solution).items() if not name.startswith('__')})\n\n");
             writer.write(textToAdd);
             writer.close();
+            return stripFooter(contents);
         } else {
-            // If a footer is present, overwrite it
-            String keepContents = contents.split("import sys")[0];
+            // Replace any footer that is already present
+            String keepContents = stripFooter(contents);
             FileWriter writer = new FileWriter(this.solutionPath);
             writer.write(keepContents);
+            writer.write(SOLUTION_FOOTER_MARKER + "\n");
             writer.write(textToAdd);
             writer.close();
+            return keepContents;
+        }
+    }
+
+    /**
+     * Removes the footer that the Tester wrote to a solution, if any, from the solution's
+     * contents. The footer starts at its marker line; a footer written by an earlier
+     * version of the Tester, which has no marker, is recognized by its last line, and
+     * starts at the last line that imports sys. Nothing else is removed, so any change
+     * to the rest of the solution changes the result.
+     *
+     * @param contents the contents of the solution file, with each line terminated
+     * @return the contents of the solution file, excluding the footer
+     */
+    private static String stripFooter(String contents) {
+        // Look for the marker line
+        if (contents.startsWith(SOLUTION_FOOTER_MARKER + "\n")) {
+            return "";
+        }
+        int marker = contents.indexOf("\n" + SOLUTION_FOOTER_MARKER + "\n");
+        if (marker >= 0) {
+            return contents.substring(0, marker + 1);
+        }
+
+        // Look for an unmarked footer, which ends with a line that prints the result
+        String trimmed = contents.stripTrailing();
+        int lastLine = trimmed.lastIndexOf('\n') + 1;
+        if (LEGACY_FOOTER_END.matcher(trimmed.substring(lastLine)).matches()) {
+            int start = trimmed.lastIndexOf("\nimport sys\n");
+            if (start >= 0) {
+                return contents.substring(0, start + 1);
+            } else if (trimmed.startsWith("import sys\n")) {
+                return "";
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Appends the Python code that lets a file generated in a separate working
+     * directory import the implementations, to the given builder: the implementation
+     * directory is put on the path right after the working directory (so that the
+     * generated expected results still take precedence), and bytecode is written under
+     * the working directory's pycache rather than next to the implementations. Nothing
+     * is appended when the working directory is the implementation directory. The
+     * generated file must import os and sys.
+     *
+     * @param sb the builder holding the Python file being generated
+     */
+    private void appendPathSetup(StringBuilder sb) {
+        if (this.workDirPath == null) {
+            return;
+        }
+        sb.append("sys.pycache_prefix = os.path.join(os.path.dirname(" +
+                "os.path.abspath(__file__)), '__pycache__')\n");
+        sb.append("sys.path.insert(1, ").append(toPyString(this.implDirPath))
+                .append(")\n");
+    }
+
+    /**
+     * Appends the Python code that makes the implementations' bytecode be read from (and
+     * written to) the bytecode cache, to the given builder. This must come after the
+     * expected results are imported, so that their bytecode is still written to the
+     * pycache that is deleted after every run, and never outlives the results that it
+     * was compiled from. Nothing is appended when there is no bytecode cache. The
+     * generated file must import sys.
+     *
+     * @param sb the builder holding the Python file being generated
+     */
+    private void appendBytecodeSetup(StringBuilder sb) {
+        if (this.bytecodeCachePath == null) {
+            return;
+        }
+        sb.append("sys.pycache_prefix = ").append(toPyString(this.bytecodeCachePath))
+                .append("\n");
+    }
+
+    /**
+     * Converts the given text into a Python string literal.
+     *
+     * @param text the text to be converted
+     * @return a Python string literal whose value is the given text
+     */
+    private static String toPyString(String text) {
+        return "'" + text.replace("\\", "\\\\").replace("'", "\\'")
+                .replace("\n", "\\n").replace("\r", "\\r") + "'";
+    }
+
+    /**
+     * Appends the Python code for loading the arguments of a test case from the case
+     * table to the given builder. The table is memory-mapped the first time that a case
+     * is loaded, and only the requested case's arguments are decoded and converted back
+     * into Python objects. The same code reads records from any table in the format
+     * written by writeTable(). The generated file must import json, mmap, and struct.
+     *
+     * @param sb the builder holding the Python file being generated
+     */
+    private static void appendCaseLoader(StringBuilder sb) {
+        // Function for reading a single record from a table (either the case table or
+        // the expected results table), which is memory-mapped on first use
+        sb.append("tables = {}\n\n");
+        sb.append("def read_record(table_path, index):\n");
+        sb.append("    table = tables.get(table_path)\n");
+        sb.append("    if table is None:\n");
+        sb.append("        with open(table_path, 'rb') as table_file:\n");
+        sb.append("            table = mmap.mmap(table_file.fileno(), 0, " +
+                "access=mmap.ACCESS_READ)\n");
+        sb.append("        tables[table_path] = table\n");
+        sb.append("    (count,) = struct.unpack_from('>I', table, 0)\n");
+        sb.append("    start, end = struct.unpack_from('>QQ', table, 4 + 8 * index)\n");
+        sb.append("    base = 4 + 8 * (count + 1)\n");
+        sb.append("    return table[base + start:base + end].decode('utf-8')\n\n");
+        sb.append("def load_case(table_path, case_num):\n");
+        sb.append("    args = json.loads(read_record(table_path, case_num))\n");
+        sb.append("    return [eval(arg) for arg in args]\n\n");
+    }
+
+    /**
+     * Appends the Python code for looking up the expected results in the expected
+     * results table to the given builder, if the expected results are stored in binary
+     * form: results[case_num] then reads and evaluates only that case's result, rather
+     * than expected.py being parsed in full. Nothing is appended otherwise (since the
+     * results are imported from expected.py instead). Must follow the case loader.
+     *
+     * @param sb the builder holding the Python file being generated
+     */
+    private void appendExpectedLoader(StringBuilder sb) {
+        if (!this.binaryExpected) {
+            return;
+        }
+        sb.append("EXPECTED_TABLE = os.path.join(os.path.dirname(" +
+                "os.path.abspath(__file__)), 'expected.dat')\n\n");
+        sb.append("class ExpectedResults:\n");
+        sb.append("    def __getitem__(self, case_num):\n");
+        sb.append("        return eval(read_record(EXPECTED_TABLE, case_num))\n\n");
+        sb.append("results = ExpectedResults()\n\n");
+    }
+
+    /**
+     * Appends the Python code for imposing resource limits on buggy implementations to
+     * the given builder. apply_limits() reads the limits from the --max-memory and
+     * --max-cpu options: the memory limit is imposed on the whole process with
+     * RLIMIT_AS, while the CPU time limit is re-armed for each test case by
+     * run_limited(), which runs a test and returns its outcome record: the code of the
+     * kind of outcome ('1' for a pass, '0' for a wrong result, 'E' if the test raised an
+     * exception, 'M' if it ran out of memory under the limit, or 'C' if it exceeded the
+     * CPU time limit), the elapsed time in nanoseconds, and (for anything raised) the
+     * name of the exception's type, separated by spaces. The limits are ignored where
+     * the resource module is unavailable. The generated file must import os, signal and
+     * time.
+     *
+     * @param sb the builder holding the Python file being generated
+     */
+    private static void appendLimitRunner(StringBuilder sb) {
+        sb.append("try:\n");
+        sb.append("    import resource\n");
+        sb.append("except ImportError:\n");
+        sb.append("    resource = None\n\n");
+        sb.append("max_memory = 0\n");
+        sb.append("max_cpu = 0\n\n");
+
+        // Exceeding the soft CPU limit raises SIGXCPU, which is turned into an exception
+        // that unwinds the test
+        sb.append("class CpuLimitExceeded(BaseException):\n");
+        sb.append("    pass\n\n");
+        sb.append("def raise_cpu_limit(signum, frame):\n");
+        sb.append("    raise CpuLimitExceeded()\n\n");
+        sb.append("def set_soft_limit(kind, soft):\n");
+        sb.append("    hard = resource.getrlimit(kind)[1]\n");
+        sb.append("    if hard != resource.RLIM_INFINITY and " +
+                "(soft == resource.RLIM_INFINITY or soft > hard):\n");
+        sb.append("        soft = hard\n");
+        sb.append("    resource.setrlimit(kind, (soft, hard))\n\n");
+        sb.append("def apply_limits(options):\n");
+        sb.append("    global max_memory, max_cpu\n");
+        sb.append("    if resource is None:\n");
+        sb.append("        return\n");
+        sb.append("    for option in options:\n");
+        sb.append("        if option.startswith('--max-memory='):\n");
+        sb.append("            max_memory = int(option[len('--max-memory='):])\n");
+        sb.append("        elif option.startswith('--max-cpu='):\n");
+        sb.append("            max_cpu = int(option[len('--max-cpu='):])\n");
+        sb.append("    if max_memory > 0:\n");
+        sb.append("        set_soft_limit(resource.RLIMIT_AS, max_memory)\n");
+        sb.append("    if max_cpu > 0:\n");
+        sb.append("        signal.signal(signal.SIGXCPU, raise_cpu_limit)\n\n");
+
+        // The CPU limit applies to the whole process, so it's set to the time used so
+        // far plus the per-test allowance, and lifted again once the test is done
+        sb.append("def run_limited(test):\n");
+        sb.append("    if max_cpu > 0:\n");
+        sb.append("        usage = resource.getrusage(resource.RUSAGE_SELF)\n");
+        sb.append("        used = int(usage.ru_utime + usage.ru_stime) + 1\n");
+        sb.append("        set_soft_limit(resource.RLIMIT_CPU, used + max_cpu)\n");
+        sb.append("    start = time.perf_counter_ns()\n");
+        sb.append("    try:\n");
+        sb.append("        kind = '1' if test() else '0'\n");
+        sb.append("        return kind + ' ' + str(time.perf_counter_ns() - start)\n");
+        sb.append("    except BaseException as e:\n");
+        sb.append("        if isinstance(e, CpuLimitExceeded):\n");
+        sb.append("            kind = 'C'\n");
+        sb.append("        elif isinstance(e, MemoryError) and max_memory > 0:\n");
+        sb.append("            kind = 'M'\n");
+        sb.append("        else:\n");
+        sb.append("            kind = 'E'\n");
+        sb.append("        return kind + ' ' + str(time.perf_counter_ns() - start) + ' ' + " +
+                "type(e).__name__\n");
+        sb.append("    finally:\n");
+        sb.append("        if max_cpu > 0:\n");
+        sb.append("            set_soft_limit(resource.RLIMIT_CPU, resource.RLIM_INFINITY)\n\n");
+    }
+
+    /**
+     * Creates the separate working directory, if one was set and doesn't exist yet. (The
+     * implementation directory, by contrast, must already exist.)
+     *
+     * @throws IOException if the working directory cannot be created
+     */
+    private void createWorkDir() throws IOException {
+        if (this.workDirPath != null) {
+            Files.createDirectories(Paths.get(this.workDirPath));
+        }
+    }
+
+    /**
+     * Returns the path to the directory in which the Tester writes the files that it
+     * generates.
+     *
+     * @return the working directory, if one was set; otherwise, the implementation
+     * directory
+     */
+    private String getWorkDir() {
+        return (this.workDirPath != null) ? this.workDirPath : this.implDirPath;
+    }
+
+    /**
+     * Returns the path to the script that runs the solution along with its footer.
+     *
+     * @return the path to the runner within the working directory, if one was set;
+     * otherwise, the path to the solution itself
+     */
+    private String getSolutionScript() {
+        return (this.workDirPath != null) ? this.workDirPath + "/" + SOLUTION_RUNNER_FILE
+                : this.solutionPath;
+    }
+
+    /**
+     * Returns the path to the case table, which sits next to the expected results in
+     * the working directory.
+     *
+     * @return the path to the case table
+     */
+    private String getCaseTablePath() {
+        return this.getWorkDir() + "/cases.dat";
+    }
+
+    /**
+     * Writes every test case to the case table, so that the Python processes only need
+     * to be told the index of each case. The table is in the format written by
+     * writeTable(), and each record is a UTF-8 JSON list holding the string
+     * representation of each argument.
+     *
+     * @throws IOException if the case table cannot be created or written to
+     */
+    private void writeCaseTable() throws IOException {
+        // Encode each test case's arguments
+        List<byte[]> records = new ArrayList<>();
+        for (TestCase test : this.tests) {
+            JSONArray args = new JSONArray();
+            for (APyObj arg : test.getArgs()) {
+                args.put(arg.toString());
+            }
+            records.add(args.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        writeTable(this.getCaseTablePath(), records);
+    }
+
+    /**
+     * Writes a table of records, which can be read one record at a time without reading
+     * (or parsing) the rest. The table consists of the number of records (a four-byte
+     * big-endian integer), followed by that many plus one eight-byte big-endian offsets,
+     * followed by the records themselves; the i-th record occupies the bytes between the
+     * i-th and (i + 1)-th offsets (relative to the end of the offsets).
+     *
+     * @param tablePath the path to the table
+     * @param records   the records to be written, in order
+     * @throws IOException if the table cannot be created or written to
+     */
+    private static void writeTable(String tablePath, List<byte[]> records)
+            throws IOException {
+        // Write the header, the offsets, and then the records
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tablePath)))) {
+            out.writeInt(records.size());
+            long offset = 0;
+            out.writeLong(offset);
+            for (byte[] record : records) {
+                offset += record.length;
+                out.writeLong(offset);
+            }
+            for (byte[] record : records) {
+                out.write(record);
+            }
         }
     }
 
     /**
-     * Outputs the expected results (given) to the file expected.py in the form of a
-     * Python list.
+     * Outputs the expected results (given) to the file expected.py (in the working
+     * directory) in the form of a Python list, or to the binary table expected.dat if
+     * the expected results are stored in binary form.
      *
      * @param results the per-case list of expected results
      * @throws IOException if the results file cannot be created or written to
      */
     private void outputExpectedResults(List<String> results) throws IOException {
+        if (this.binaryExpected) {
+            // Write each result's text as its own record
+            List<byte[]> records = new ArrayList<>();
+            for (String result : results) {
+                records.add(result.getBytes(StandardCharsets.UTF_8));
+            }
+            writeTable(this.getWorkDir() + "/expected.dat", records);
+            return;
+        }
+
         // Convert input results to Python list
         String contents = "results = " + results.toString();
 
         // Output results to expected.py, within the implementation directory
-        FileWriter writer = new FileWriter(this.implDirPath + "/expected.py");
+        FileWriter writer = new FileWriter(this.getWorkDir() + "/expected.py");
         writer.write(contents);
         writer.close();
     }
@@ -353,21 +2289,201 @@ public class Tester {
      *                     fails
      */
     private void deletePyCache() throws IOException {
+        deletePyCacheFiles(new File(this.getWorkDir() + "/__pycache__/"));
+    }
+
+    /**
+     * Helper function for deletePyCache() which deletes all cached Python files within
+     * the given directory and its subdirectories; when using a separate working
+     * directory, the pycache mirrors the directory structure of the cached files.
+     *
+     * @param pyCacheDir the directory to be cleaned
+     * @throws IOException if a deletion operation fails
+     */
+    private static void deletePyCacheFiles(File pyCacheDir) throws IOException {
         // Get the list of all files in the pycache
-        File pyCacheDir = new File(this.implDirPath + "/__pycache__/");
-        String[] filepaths = pyCacheDir.list();
-
-        if (filepaths != null) {
-            for (String filepath : filepaths) {
-                // Only delete .pyc files
-                if (filepath.contains(".pyc")) {
-                    File cachedFile =
-                            new File(this.implDirPath + "/__pycache__/" + filepath);
+        File[] files = pyCacheDir.listFiles();
+
+        if (files != null) {
+            for (File cachedFile : files) {
+                if (cachedFile.isDirectory()) {
+                    deletePyCacheFiles(cachedFile);
+                } else if (cachedFile.getName().contains(".pyc")) {
+                    // Only delete .pyc files
                     if (!cachedFile.delete()) {
-                        throw new IOException("could not delete cached file " + filepath);
+                        throw new IOException("could not delete cached file " +
+                                cachedFile.getName());
                     }
                 }
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The results of running a range of test cases on a single implementation.
+     *
+     * @param caughtBy  the indices of the test cases that caught errors in the file,
+     *                  including those on which it timed out or exceeded a resource limit
+     * @param timedOut  the indices of the test cases on which the file timed out
+     * @param overLimit the indices of the test cases on which the file exceeded a
+     *                  resource limit
+     * @param outcomes  the outcome of each test case that was run on the file, keyed by
+     *                  the test case's index
+     */
+    private record UnitResult(Set<Integer> caughtBy, Set<Integer> timedOut,
+                              Set<Integer> overLimit, Map<Integer, TestOutcome> outcomes) {
+
+        /**
+         * Constructor for an empty UnitResult, to be filled in as test cases are run.
+         */
+        UnitResult() {
+            this(new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashMap<>());
+        }
+
+        /**
+         * Records the outcome of running a test case on the file, classifying it as a
+         * failure, a timeout, or a resource limit breach as appropriate.
+         *
+         * @param testIndex the index of the test case
+         * @param outcome   the outcome of running it
+         */
+        void add(int testIndex, TestOutcome outcome) {
+            this.outcomes.put(testIndex, outcome);
+            if (!outcome.passed()) {
+                this.caughtBy.add(testIndex);
+            }
+            switch (outcome.kind()) {
+                case TIMEOUT -> this.timedOut.add(testIndex);
+                case MEMORY_LIMIT, CPU_LIMIT -> this.overLimit.add(testIndex);
+                default -> { }
+            }
+        }
+
+        /**
+         * Adds everything recorded in another UnitResult for the same file to this one.
+         *
+         * @param other the results of running another range of test cases on the file
+         */
+        void addAll(UnitResult other) {
+            this.caughtBy.addAll(other.caughtBy());
+            this.timedOut.addAll(other.timedOut());
+            this.overLimit.addAll(other.overLimit());
+            this.outcomes.putAll(other.outcomes());
+        }
+    }
+
+    /**
+     * The output of a process that handled a batch of test cases.
+     *
+     * @param lines    the complete lines that the process wrote to stdout
+     * @param timedOut whether the process was killed for exceeding the time limit
+     */
+    private record BatchOutput(List<String> lines, boolean timedOut) {
+    }
+
+    /**
+     * A stream over the output of a process that counts the bytes read from it and notes
+     * when the first of them arrived.
+     */
+    private static class MeteredInputStream extends FilterInputStream {
+
+        /**
+         * The value of System.nanoTime() when the process was started.
+         */
+        private final long startNanos;
+
+        /**
+         * The value of System.nanoTime() when the first byte was read, or -1 if none
+         * has been read yet.
+         */
+        private long firstByteNanos = -1;
+
+        /**
+         * The number of bytes read so far.
+         */
+        private long bytes = 0;
+
+        /**
+         * Constructor for a MeteredInputStream.
+         *
+         * @param in         the output of the process
+         * @param startNanos the value of System.nanoTime() when the process was started
+         */
+        MeteredInputStream(InputStream in, long startNanos) {
+            super(in);
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Reads a single byte, counting it.
+         *
+         * @return the byte, or -1 at the end of the stream
+         * @throws IOException if the underlying stream cannot be read
+         */
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                this.count(1);
+            }
+            return b;
+        }
+
+        /**
+         * Reads up to len bytes into the given array, counting them.
+         *
+         * @param b   the array into which to read
+         * @param off the offset at which to start storing bytes
+         * @param len the maximum number of bytes to read
+         * @return the number of bytes read, or -1 at the end of the stream
+         * @throws IOException if the underlying stream cannot be read
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                this.count(read);
+            }
+            return read;
+        }
+
+        /**
+         * Counts bytes that were just read, noting the time if they are the first.
+         *
+         * @param read the number of bytes read
+         */
+        private void count(int read) {
+            if (this.firstByteNanos < 0) {
+                this.firstByteNanos = System.nanoTime();
+            }
+            this.bytes += read;
+        }
+
+        /**
+         * Returns the value of System.nanoTime() when the process was started.
+         *
+         * @return the start time
+         */
+        long getStartNanos() {
+            return this.startNanos;
+        }
+
+        /**
+         * Returns the value of System.nanoTime() when the first byte was read.
+         *
+         * @return the time of the first byte, or -1 if none has been read
+         */
+        long getFirstByteNanos() {
+            return this.firstByteNanos;
+        }
+
+        /**
+         * Returns the number of bytes read so far.
+         *
+         * @return the number of bytes read
+         */
+        long getBytes() {
+            return this.bytes;
+        }
+    }
+}
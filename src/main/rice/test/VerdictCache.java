@@ -0,0 +1,214 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A persistent cache of the verdicts of running test cases on buggy implementations, so
+ * that re-grading a directory only runs the implementations that are new or have
+ * changed. Each verdict is the full outcome of the test case (its kind, the type of any
+ * exception, and its elapsed time), so that results served from the cache are the same
+ * as those of a full run, and is keyed by a hash of the implementation's contents and the
+ * test case's fingerprint. The cache file itself is named after a version string that
+ * captures everything else a verdict depends on (the expected results, the function
+ * under test, and the settings used to run it), so changing any of those automatically
+ * starts a fresh cache.
+ * <p>
+ * The file is an append-only log of records, each of which consists of a 16-byte key,
+ * a byte holding the ordinal of the kind of outcome, the elapsed time as an eight-byte
+ * integer, and the exception type as a two-byte length (zero if there is none) followed
+ * by that many bytes of UTF-8. The whole log is loaded into memory when the cache is
+ * opened, so lookups never touch the disk.
+ */
+public class VerdictCache {
+
+    /**
+     * The version of the cache format; bumping this invalidates every existing cache
+     * file.
+     */
+    private static final String FORMAT_VERSION = "2";
+
+    /**
+     * The number of bytes of each (implementation, test case) hash used as its key.
+     */
+    private static final int KEY_BYTES = 16;
+
+    /**
+     * The maximum number of bytes of an exception type's name that are stored.
+     */
+    private static final int MAX_TYPE_BYTES = 0xFFFF;
+
+    /**
+     * The file holding the verdicts for this cache's version.
+     */
+    private final Path cachePath;
+
+    /**
+     * The cached outcomes, keyed by the hashes of their (implementation, test case)
+     * pairs.
+     */
+    private final Map<ByteBuffer, TestOutcome> verdicts;
+
+    /**
+     * Constructor for a VerdictCache; loads every verdict that was previously cached
+     * under the given version, creating the cache directory if it doesn't exist.
+     *
+     * @param cacheDirPath the path to the directory holding the cache files
+     * @param version      a string capturing everything other than the implementation
+     *                     and the test case that a verdict depends on
+     * @throws IOException if the cache directory or file cannot be accessed
+     */
+    public VerdictCache(String cacheDirPath, String version) throws IOException {
+        Path cacheDir = Path.of(cacheDirPath);
+        Files.createDirectories(cacheDir);
+        String versionKey = HexFormat.of().formatHex(
+                ExpectedResultsCache.sha256(FORMAT_VERSION + "\0" + version));
+        this.cachePath = cacheDir.resolve(versionKey + ".verdicts");
+        this.verdicts = new HashMap<>();
+        this.load();
+    }
+
+    /**
+     * Computes the hash of an implementation's contents, which identifies it within the
+     * cache regardless of its filename.
+     *
+     * @param implPath the path to the implementation
+     * @return the hash of the implementation's contents
+     * @throws IOException if the implementation cannot be read
+     */
+    public static byte[] hashFile(Path implPath) throws IOException {
+        return ExpectedResultsCache.sha256(Files.readAllBytes(implPath));
+    }
+
+    /**
+     * Returns the outcomes of running the given test cases on an implementation, but
+     * only if an outcome is cached for every one of the test cases.
+     *
+     * @param implHash the hash of the implementation's contents
+     * @param tests    the test cases to be looked up
+     * @return the outcome of each test case, keyed by its index, or null if any outcome
+     * is missing
+     */
+    public Map<Integer, TestOutcome> getOutcomes(byte[] implHash, List<TestCase> tests) {
+        Map<Integer, TestOutcome> outcomes = new HashMap<>();
+        for (int i = 0; i < tests.size(); i++) {
+            TestOutcome outcome = this.verdicts.get(key(implHash, tests.get(i)));
+            if (outcome == null) {
+                return null;
+            }
+            outcomes.put(i, outcome);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Adds the outcomes of running the given test cases on an implementation to this
+     * cache, both in memory and on disk.
+     *
+     * @param implHash the hash of the implementation's contents
+     * @param tests    the test cases that were run
+     * @param outcomes the outcome of each test case that was run, keyed by its index
+     * @param unknown  the indices of the test cases whose outcomes should not be cached
+     *                 (e.g. because they timed out, which may not happen again)
+     * @throws IOException if the cache file cannot be written to
+     */
+    public void putAll(byte[] implHash, List<TestCase> tests,
+                       Map<Integer, TestOutcome> outcomes, Set<Integer> unknown)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(bytes);
+        for (int i = 0; i < tests.size(); i++) {
+            ByteBuffer key = key(implHash, tests.get(i));
+            TestOutcome outcome = outcomes.get(i);
+            if (outcome == null || unknown.contains(i) || this.verdicts.containsKey(key)) {
+                continue;
+            }
+            this.verdicts.put(key, outcome);
+
+            byte[] type = (outcome.exceptionType() == null) ? new byte[0]
+                    : outcome.exceptionType().getBytes(StandardCharsets.UTF_8);
+            records.write(key.array());
+            records.writeByte(outcome.kind().ordinal());
+            records.writeLong(outcome.elapsedNanos());
+            records.writeShort(Math.min(type.length, MAX_TYPE_BYTES));
+            records.write(type, 0, Math.min(type.length, MAX_TYPE_BYTES));
+        }
+        if (bytes.size() == 0) {
+            return;
+        }
+
+        // Append all of the new records in one write, holding a lock so that records
+        // from concurrent runs can't interleave
+        try (FileChannel channel = FileChannel.open(this.cachePath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Loads every record from the cache file (if it exists) into memory. A truncated
+     * final record, left behind by a run that died mid-write, is ignored.
+     *
+     * @throws IOException if the cache file cannot be read
+     */
+    private void load() throws IOException {
+        if (!Files.exists(this.cachePath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(this.cachePath)))) {
+            while (true) {
+                byte[] key = in.readNBytes(KEY_BYTES);
+                if (key.length < KEY_BYTES) {
+                    break;
+                }
+                TestOutcome.Kind kind = TestOutcome.Kind.values()[in.readUnsignedByte()];
+                long elapsedNanos = in.readLong();
+                int typeLength = in.readUnsignedShort();
+                byte[] type = in.readNBytes(typeLength);
+                if (type.length < typeLength) {
+                    break;
+                }
+                this.verdicts.put(ByteBuffer.wrap(key), new TestOutcome(kind,
+                        (typeLength == 0) ? null : new String(type, StandardCharsets.UTF_8),
+                        elapsedNanos));
+            }
+        } catch (EOFException e) {
+            // The final record was truncated, and is ignored
+        }
+    }
+
+    /**
+     * Computes the key under which the verdict of running the given test case on the
+     * given implementation is stored.
+     *
+     * @param implHash the hash of the implementation's contents
+     * @param test     the test case
+     * @return the truncated hash of the implementation's hash and the test's fingerprint
+     */
+    private static ByteBuffer key(byte[] implHash, TestCase test) {
+        String pair = HexFormat.of().formatHex(implHash) + "\0" + test.getFingerprint();
+        return ByteBuffer.wrap(Arrays.copyOf(ExpectedResultsCache.sha256(pair), KEY_BYTES));
+    }
+}
@@ -0,0 +1,111 @@
+package main.rice.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stateless class for creating the threads that supervise the Python processes started
+ * by the Tester. Supervising a process mostly means waiting on it, so when the runtime
+ * supports virtual threads (Java 21 and later), they are used, and any number of
+ * processes can be supervised without tying up an OS thread for each one. Otherwise,
+ * ordinary platform threads are used. Virtual threads are looked up reflectively, so
+ * this class still compiles against (and runs on) older runtimes.
+ */
+public class VirtualThreads {
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), or null if the runtime doesn't
+     * support virtual threads.
+     */
+    private static final Method NEW_EXECUTOR = findMethod(Executors.class,
+            "newVirtualThreadPerTaskExecutor");
+
+    /**
+     * Thread.startVirtualThread(Runnable), or null if the runtime doesn't support
+     * virtual threads.
+     */
+    private static final Method START_THREAD = findMethod(Thread.class,
+            "startVirtualThread", Runnable.class);
+
+    /**
+     * Returns whether the runtime supports virtual threads.
+     *
+     * @return true if virtual threads are used; false if platform threads are used
+     */
+    public static boolean isAvailable() {
+        return NEW_EXECUTOR != null && START_THREAD != null;
+    }
+
+    /**
+     * Creates an executor that runs each task on its own virtual thread, if the runtime
+     * supports them; otherwise, creates an executor with a fixed number of platform
+     * threads. Either way, callers that need to bound how much work runs at once must
+     * do so themselves (e.g. with a semaphore), since virtual threads are unbounded.
+     *
+     * @param platformThreads the number of threads to use if virtual threads aren't
+     *                        supported; must be positive
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(int platformThreads) {
+        if (isAvailable()) {
+            return (ExecutorService) invoke(NEW_EXECUTOR);
+        }
+        return Executors.newFixedThreadPool(platformThreads);
+    }
+
+    /**
+     * Starts a thread that runs the given task and won't keep the JVM alive: a virtual
+     * thread if the runtime supports them, or a daemon platform thread otherwise.
+     *
+     * @param task the task to be run
+     * @return the started thread
+     */
+    public static Thread start(Runnable task) {
+        if (isAvailable()) {
+            return (Thread) invoke(START_THREAD, task);
+        }
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Looks up a public static method, returning null if it doesn't exist.
+     *
+     * @param owner      the class declaring the method
+     * @param name       the name of the method
+     * @param paramTypes the types of the method's parameters
+     * @return the method, or null if it doesn't exist
+     */
+    private static Method findMethod(Class<?> owner, String name, Class<?>... paramTypes) {
+        try {
+            return owner.getMethod(name, paramTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Invokes a public static method that was found by findMethod().
+     *
+     * @param method the method to be invoked
+     * @param args   the arguments to the method
+     * @return the method's return value
+     */
+    private static Object invoke(Method method, Object... args) {
+        try {
+            return method.invoke(null, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            // Rethrow the method's own exception, which must be unchecked
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package test.rice;
 
 import main.rice.Main;
+import main.rice.metrics.Metrics;
 import main.rice.obj.*;
 import main.rice.parse.InvalidConfigException;
 import main.rice.test.TestCase;
 import org.junit.jupiter.api.*;
 import test.rice.node.APyNodeTest;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -146,6 +150,199 @@ public class MainTest {
         mainTestMultipleOptionsHelper(args, expectedOptions);
     }
 
+    /**
+     * Tests the situation where the config file specifies multiple test cases and the
+     * implementations are tested concurrently.
+     */
+    @Test
+    void testMultipleCasesDeterministicConcurrent() {
+        String[] args = withOptions(
+                buildArgs("func0", "func0simple", "f0multipleMixedDeterministic"),
+                "--jobs=4");
+        Set<TestCase> expected = Set.of(new TestCase(Collections.singletonList(
+                new PyIntObj(2))), new TestCase(Collections.singletonList(new PyIntObj(7))));
+        mainTestHelper(args, expected);
+    }
+
+    /**
+     * Tests the situation where the config file specifies multiple test cases and the
+     * tests are run lazily, as the set cover needs them.
+     */
+    @Test
+    void testMultipleCasesDeterministicLazyCover() {
+        String[] args = withOptions(
+                buildArgs("func0", "func0simple", "f0multipleMixedDeterministic"),
+                "--lazy-cover=true");
+        Set<TestCase> expected = Set.of(new TestCase(Collections.singletonList(
+                new PyIntObj(2))), new TestCase(Collections.singletonList(new PyIntObj(7))));
+        mainTestHelper(args, expected);
+    }
+
+    /**
+     * Tests the situation where the config file specifies multiple test cases and the
+     * generated files are written to a private working directory.
+     */
+    @Test
+    void testMultipleCasesDeterministicIsolated() {
+        String[] args = withOptions(
+                buildArgs("func0", "func0simple", "f0multipleMixedDeterministic"),
+                "--isolate=true");
+        Set<TestCase> expected = Set.of(new TestCase(Collections.singletonList(
+                new PyIntObj(2))), new TestCase(Collections.singletonList(new PyIntObj(7))));
+        mainTestHelper(args, expected);
+    }
+
+    /**
+     * Tests that the metrics of each phase are recorded in the given registry, and that
+     * they can be dumped.
+     */
+    @Test
+    void testMultipleCasesDeterministicMetrics() {
+        String[] args = withOptions(
+                buildArgs("func0", "func0simple", "f0multipleMixedDeterministic"),
+                "--metrics=json");
+        Metrics metrics = new Metrics();
+        Set<TestCase> actual = null;
+        try {
+            actual = Main.generateTests(args, metrics);
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+        assertEquals(Set.of(new TestCase(Collections.singletonList(new PyIntObj(2))),
+                new TestCase(Collections.singletonList(new PyIntObj(7)))), actual);
+        for (String phase : List.of("main.parse", "main.generate", "main.expected",
+                "main.run", "main.cover", "tester.run", "tester.expected.write")) {
+            assertEquals(1, metrics.timer(phase).getCount());
+        }
+        assertTrue(metrics.timer("tester.process.spawn").getCount() > 0);
+        assertTrue(metrics.counter("tester.outcome.pass").get() > 0);
+        assertTrue(metrics.toJson().has("main.cover"));
+    }
+
+    /**
+     * Tests splitting a job into shards along the test cases, running each shard, and
+     * merging their results.
+     */
+    @Test
+    void testMultipleCasesDeterministicShardedByCases() {
+        shardTestHelper("cases");
+    }
+
+    /**
+     * Tests splitting a job into shards along the implementations, running each shard,
+     * and merging their results.
+     */
+    @Test
+    void testMultipleCasesDeterministicShardedByFiles() {
+        shardTestHelper("files");
+    }
+
+    /**
+     * Tests running two shards at the same time on the same implementations, without
+     * asking for them to be isolated; each shard must still write its generated files to
+     * a directory of its own, so merging their results chooses the same concise test set
+     * as an unsharded run.
+     */
+    @Test
+    void testConcurrentShards() throws Exception {
+        String[] args = buildArgs("func0", "func0simple", "f0multipleMixedDeterministic");
+        Set<Path> before = listFiles(Path.of(args[1]));
+        Path first = Files.createTempFile("shard", ".json");
+        Path second = Files.createTempFile("shard", ".json");
+        try {
+            // Run both shards at the same time
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            Thread thread = new Thread(() -> {
+                try {
+                    Main.generateTests(withOptions(args, "--shard=2/2",
+                            "--shard-output=" + second));
+                } catch (Exception e) {
+                    failures.add(e);
+                }
+            });
+            thread.start();
+            Main.generateTests(withOptions(args, "--shard=1/2", "--shard-output=" + first));
+            thread.join();
+            assertEquals(List.of(), failures);
+            assertEquals(before, listFiles(Path.of(args[1])));
+
+            Set<TestCase> expected = Set.of(new TestCase(Collections.singletonList(
+                    new PyIntObj(2))), new TestCase(Collections.singletonList(
+                    new PyIntObj(7))));
+            mainTestHelper(withOptions(args, "--merge=" + first + "," + second), expected);
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    /**
+     * Tests that running a shard without saying where to write its results is rejected.
+     */
+    @Test
+    void testShardWithoutOutput() {
+        String[] args = withOptions(
+                buildArgs("func0", "func0simple", "f0multipleMixedDeterministic"),
+                "--shard=1/2");
+        assertThrows(IllegalArgumentException.class, () -> Main.generateTests(args));
+    }
+
+    /**
+     * Tests that an option that isn't of the form --name=value is rejected.
+     */
+    @Test
+    void testInvalidOption() {
+        String[] args = withOptions(buildArgs("func0", "func0simple", "f0multipleRight"),
+                "jobs");
+        assertThrows(IllegalArgumentException.class, () -> Main.generateTests(args));
+    }
+
+    /**
+     * Helper function for testing a job that is split into two shards along the given
+     * axis; each shard should only write its results, and merging them should choose the
+     * same concise test set as an unsharded run.
+     *
+     * @param axis the axis along which the job is split, as given to --shard-by
+     */
+    private static void shardTestHelper(String axis) {
+        String[] args = buildArgs("func0", "func0simple", "f0multipleMixedDeterministic");
+        try {
+            Path first = Files.createTempFile("shard", ".json");
+            Path second = Files.createTempFile("shard", ".json");
+            try {
+                assertEquals(Collections.emptySet(), runMain(withOptions(args,
+                        "--shard=1/2", "--shard-by=" + axis, "--shard-output=" + first)));
+                assertEquals(Collections.emptySet(), runMain(withOptions(args,
+                        "--shard=2/2", "--shard-by=" + axis, "--shard-output=" + second)));
+                Set<TestCase> expected = Set.of(new TestCase(Collections.singletonList(
+                        new PyIntObj(2))), new TestCase(Collections.singletonList(
+                        new PyIntObj(7))));
+                mainTestHelper(withOptions(args, "--merge=" + second + "," + first),
+                        expected);
+            } finally {
+                Files.delete(first);
+                Files.delete(second);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    /**
+     * Helper function which lists the files directly within a directory.
+     *
+     * @param dir the directory whose files are to be listed
+     * @return the set of paths to the files within the directory
+     * @throws IOException if the directory cannot be listed
+     */
+    private static Set<Path> listFiles(Path dir) throws IOException {
+        try (var paths = Files.list(dir)) {
+            return paths.collect(Collectors.toSet());
+        }
+    }
+
     /**
      * Helper function for building the array of args for Main.main() by adding absolute
      * path information.
@@ -170,6 +367,19 @@ public class MainTest {
         return new String[]{configFilePath, implDirPath, solutionPath};
     }
 
+    /**
+     * Helper function for appending options to an array of args for Main.main().
+     *
+     * @param args    the array of required args, as built by buildArgs()
+     * @param options the options to append
+     * @return an array of args containing the required args followed by the options
+     */
+    private static String[] withOptions(String[] args, String... options) {
+        String[] allArgs = Arrays.copyOf(args, args.length + options.length);
+        System.arraycopy(options, 0, allArgs, args.length, options.length);
+        return allArgs;
+    }
+
     /**
      * Helper function for running a test of Main.generateTests(); returns the actual
      * results.
@@ -6,6 +6,7 @@ import main.rice.obj.*;
 import main.rice.test.TestCase;
 import org.junit.jupiter.api.*;
 import java.util.*;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -308,6 +309,155 @@ class BaseSetGeneratorTest {
                 oneArgSimpleOverlapRandVals, 3, 100, true));
     }
 
+    /**
+     * Tests lazily streaming the exhaustive test cases when there are multiple simple
+     * arguments; the stream should hold the same test cases as genExTests(), each
+     * exactly once.
+     */
+    @Test
+    @Order(18)
+    void testStreamExMultipleArgsSimple() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 0);
+        List<TestCase> streamed = generator.streamExTests().toList();
+        assertEquals(multipleArgsSimpleExVals.size(), streamed.size());
+        assertEquals(multipleArgsSimpleExVals, new HashSet<>(streamed));
+    }
+
+    /**
+     * Tests lazily streaming the exhaustive test cases when there are multiple nested
+     * arguments.
+     */
+    @Test
+    @Order(19)
+    void testStreamExMultipleArgsNested() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsNested, 0);
+        assertEquals(multipleArgsNestedExVals,
+                generator.streamExTests().collect(Collectors.toSet()));
+    }
+
+    /**
+     * Tests the size of the exhaustive space when there are multiple simple arguments.
+     */
+    @Test
+    @Order(20)
+    void testExSpaceSizeMultipleArgsSimple() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 0);
+        assertEquals(multipleArgsSimpleExVals.size(), generator.getExSpaceSize());
+    }
+
+    /**
+     * Tests generating each exhaustive test case by its index, when there are multiple
+     * nested arguments; the indices should cover the exhaustive set exactly, in the same
+     * order as the stream.
+     */
+    @Test
+    @Order(21)
+    void testGetExTestMultipleArgsNested() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsNested, 0);
+        List<TestCase> streamed = generator.streamExTests().toList();
+        List<TestCase> unranked = new ArrayList<>();
+        for (long i = 0; i < generator.getExSpaceSize(); i++) {
+            unranked.add(generator.getExTest(i));
+        }
+        assertEquals(streamed, unranked);
+        assertEquals(multipleArgsNestedExVals, new HashSet<>(unranked));
+    }
+
+    /**
+     * Tests generating the exhaustive test cases in separate slices, which together
+     * should make up the exhaustive set.
+     */
+    @Test
+    @Order(22)
+    void testStreamExSlicesMultipleArgsSimple() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 0);
+        long size = generator.getExSpaceSize();
+        Set<TestCase> tests = new HashSet<>();
+        tests.addAll(generator.streamExTests(0, size / 3).toList());
+        tests.addAll(generator.streamExTests(size / 3, size).toList());
+        assertEquals(multipleArgsSimpleExVals, tests);
+    }
+
+    /**
+     * Tests exhaustive generation of a space large enough to be generated in parallel;
+     * the set should hold every combination, and be the same every time.
+     */
+    @Test
+    @Order(23)
+    void testExParallel() {
+        List<APyNode<?>> nodes = new ArrayList<>();
+        List<Integer> domain = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            domain.add(i);
+        }
+        for (int param = 0; param < 3; param++) {
+            PyIntNode node = new PyIntNode();
+            node.setExDomain(domain);
+            node.setRanDomain(domain);
+            nodes.add(node);
+        }
+
+        Set<TestCase> expected = new HashSet<>();
+        for (int i : domain) {
+            for (int j : domain) {
+                for (int k : domain) {
+                    expected.add(new TestCase(Arrays.asList(
+                            new PyIntObj(i), new PyIntObj(j), new PyIntObj(k))));
+                }
+            }
+        }
+        assertEquals(expected, new BaseSetGenerator(nodes, 0).genExTests());
+        assertEquals(expected, new BaseSetGenerator(nodes, 0).genExTests());
+    }
+
+    /**
+     * Tests that seeding the random generation makes the base test set the same every
+     * time, for nodes with children.
+     */
+    @Test
+    @Order(24)
+    void testSeededMultipleArgsNested() {
+        BaseSetGenerator first = new BaseSetGenerator(multipleArgsNested, 10);
+        first.setSeed(42);
+        Set<TestCase> firstSet = new HashSet<>(first.genBaseSet());
+        BaseSetGenerator second = new BaseSetGenerator(multipleArgsNested, 10);
+        second.setSeed(42);
+        assertEquals(firstSet, new HashSet<>(second.genBaseSet()));
+    }
+
+    /**
+     * Tests that the base test set lists the exhaustive test cases in index order, even
+     * when they're generated in parallel, followed by the random ones, so that seeded
+     * generators return the same list every time.
+     */
+    @Test
+    @Order(25)
+    void testBaseSetOrderParallel() {
+        List<APyNode<?>> nodes = new ArrayList<>();
+        List<Integer> exDomain = new ArrayList<>();
+        List<Integer> ranDomain = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            (i < 20 ? exDomain : ranDomain).add(i);
+        }
+        for (int param = 0; param < 3; param++) {
+            PyIntNode node = new PyIntNode();
+            node.setExDomain(exDomain);
+            node.setRanDomain(ranDomain);
+            nodes.add(node);
+        }
+
+        BaseSetGenerator first = new BaseSetGenerator(nodes, 10);
+        first.setSeed(42);
+        List<TestCase> firstList = first.genBaseSet();
+        List<TestCase> exTests = first.streamExTests().collect(Collectors.toList());
+        assertEquals(exTests, firstList.subList(0, exTests.size()));
+        assertEquals(exTests.size() + 10, firstList.size());
+
+        BaseSetGenerator second = new BaseSetGenerator(nodes, 10);
+        second.setSeed(42);
+        assertEquals(firstList, second.genBaseSet());
+    }
+
     /**
      * Sets up oneArgOneOption, oneArgOneOptionExVals, and oneArgOneOptionRandVals.
      */
@@ -0,0 +1,213 @@
+package test.rice.basegen;
+
+import main.rice.basegen.CartesianProduct;
+import main.rice.obj.APyObj;
+import main.rice.obj.PyIntObj;
+import main.rice.obj.PyStringObj;
+import main.rice.test.TestCase;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the CartesianProduct class.
+ */
+class CartesianProductTest {
+
+    /**
+     * Tests that the test cases are produced in order, with the last argument varying
+     * fastest.
+     */
+    @Test
+    void testOrder() {
+        CartesianProduct product = new CartesianProduct(List.of(
+                List.of(new PyIntObj(1), new PyIntObj(2)),
+                List.of(new PyStringObj("a"), new PyStringObj("b"), new PyStringObj("c"))));
+        List<TestCase> expected = new ArrayList<>();
+        for (int i : new int[]{1, 2}) {
+            for (String s : new String[]{"a", "b", "c"}) {
+                expected.add(new TestCase(List.of(new PyIntObj(i), new PyStringObj(s))));
+            }
+        }
+        assertEquals(expected, product.stream().toList());
+    }
+
+    /**
+     * Tests that a product with no parameters holds exactly one, empty, test case.
+     */
+    @Test
+    void testNoParameters() {
+        CartesianProduct product = new CartesianProduct(List.of());
+        assertEquals(List.of(new TestCase(new ArrayList<>())), product.stream().toList());
+    }
+
+    /**
+     * Tests that a product in which some parameter has an empty domain is empty.
+     */
+    @Test
+    void testEmptyDomain() {
+        CartesianProduct product = new CartesianProduct(List.of(
+                List.of(new PyIntObj(1)), List.<APyObj>of()));
+        Iterator<TestCase> iter = product.iterator();
+        assertFalse(iter.hasNext());
+        assertThrows(NoSuchElementException.class, iter::next);
+    }
+
+    /**
+     * Tests that a large product can be walked lazily: only the first few test cases of
+     * a product of four parameters with 300 arguments each (8.1 billion test cases in
+     * all) are built.
+     */
+    @Test
+    void testLazy() {
+        List<List<APyObj>> domains = new ArrayList<>();
+        for (int param = 0; param < 4; param++) {
+            List<APyObj> domain = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                domain.add(new PyIntObj(i));
+            }
+            domains.add(domain);
+        }
+        List<TestCase> first = new CartesianProduct(domains).stream().limit(301).toList();
+        assertEquals(new TestCase(List.of(new PyIntObj(0), new PyIntObj(0),
+                new PyIntObj(0), new PyIntObj(299))), first.get(299));
+        assertEquals(new TestCase(List.of(new PyIntObj(0), new PyIntObj(0),
+                new PyIntObj(1), new PyIntObj(0))), first.get(300));
+    }
+
+    /**
+     * Tests the size of products, including empty ones.
+     */
+    @Test
+    void testSize() {
+        assertEquals(6, sampleProduct().size());
+        assertEquals(1, new CartesianProduct(List.of()).size());
+        assertEquals(0, new CartesianProduct(List.of(
+                List.of(new PyIntObj(1)), List.<APyObj>of())).size());
+    }
+
+    /**
+     * Tests that unranking each index gives the test case at that index in the
+     * iteration order.
+     */
+    @Test
+    void testGet() {
+        CartesianProduct product = sampleProduct();
+        List<TestCase> all = product.stream().toList();
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(all.get(i), product.get(i));
+        }
+    }
+
+    /**
+     * Tests that indices outside of the product are rejected.
+     */
+    @Test
+    void testGetOutOfRange() {
+        CartesianProduct product = sampleProduct();
+        assertThrows(IndexOutOfBoundsException.class, () -> product.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> product.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> product.stream(2, 7));
+        assertThrows(IndexOutOfBoundsException.class, () -> product.stream(3, 2));
+    }
+
+    /**
+     * Tests that contiguous ranges of the product, generated separately, add up to the
+     * whole product.
+     */
+    @Test
+    void testRanges() {
+        CartesianProduct product = sampleProduct();
+        List<TestCase> joined = new ArrayList<>();
+        joined.addAll(product.stream(0, 1).toList());
+        joined.addAll(product.stream(1, 4).toList());
+        joined.addAll(product.stream(4, 4).toList());
+        joined.addAll(product.stream(4, 6).toList());
+        assertEquals(product.stream().toList(), joined);
+    }
+
+    /**
+     * Tests unranking the last test case of a product too large to iterate.
+     */
+    @Test
+    void testGetLarge() {
+        List<List<APyObj>> domains = new ArrayList<>();
+        for (int param = 0; param < 4; param++) {
+            List<APyObj> domain = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                domain.add(new PyIntObj(i));
+            }
+            domains.add(domain);
+        }
+        CartesianProduct product = new CartesianProduct(domains);
+        assertEquals(8_100_000_000L, product.size());
+        assertEquals(new TestCase(List.of(new PyIntObj(299), new PyIntObj(299),
+                new PyIntObj(299), new PyIntObj(299))), product.get(product.size() - 1));
+        assertEquals(new TestCase(List.of(new PyIntObj(1), new PyIntObj(0),
+                new PyIntObj(0), new PyIntObj(1))), product.get(27_000_001L));
+    }
+
+    /**
+     * Builds a product of two parameters with two and three arguments respectively.
+     *
+     * @return the product
+     */
+    private static CartesianProduct sampleProduct() {
+        return new CartesianProduct(List.of(
+                List.of(new PyIntObj(1), new PyIntObj(2)),
+                List.of(new PyStringObj("a"), new PyStringObj("b"), new PyStringObj("c"))));
+    }
+
+    /**
+     * Tests that splitting a spliterator divides its range in half, and that the halves
+     * hold the whole product, in order, between them.
+     */
+    @Test
+    void testSpliterator() {
+        CartesianProduct product = sampleProduct();
+        Spliterator<TestCase> suffix = product.spliterator();
+        Spliterator<TestCase> prefix = suffix.trySplit();
+        assertEquals(3, prefix.estimateSize());
+        assertEquals(3, suffix.estimateSize());
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+
+        List<TestCase> joined = new ArrayList<>();
+        prefix.forEachRemaining(joined::add);
+        suffix.forEachRemaining(joined::add);
+        assertEquals(product.stream().toList(), joined);
+    }
+
+    /**
+     * Tests splitting a spliterator after it has been started.
+     */
+    @Test
+    void testSpliteratorSplitStarted() {
+        CartesianProduct product = sampleProduct();
+        Spliterator<TestCase> suffix = product.spliterator();
+        List<TestCase> joined = new ArrayList<>();
+        assertTrue(suffix.tryAdvance(joined::add));
+        Spliterator<TestCase> prefix = suffix.trySplit();
+        prefix.forEachRemaining(joined::add);
+        suffix.forEachRemaining(joined::add);
+        assertEquals(product.stream().toList(), joined);
+    }
+
+    /**
+     * Tests that a parallel stream holds every test case exactly once, in order.
+     */
+    @Test
+    void testParallelStream() {
+        List<List<APyObj>> domains = new ArrayList<>();
+        for (int param = 0; param < 3; param++) {
+            List<APyObj> domain = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                domain.add(new PyIntObj(i));
+            }
+            domains.add(domain);
+        }
+        CartesianProduct product = new CartesianProduct(domains);
+        assertEquals(product.stream().toList(), product.parallelStream().toList());
+    }
+}
@@ -5,10 +5,13 @@ import main.rice.obj.APyObj;
 import main.rice.obj.PyFloatObj;
 import main.rice.obj.PyIntObj;
 import main.rice.obj.PyStringObj;
+import main.rice.test.ExecutionMode;
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
+import main.rice.test.Tester;
 import org.junit.jupiter.api.*;
 
+import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -311,6 +314,95 @@ class ConciseSetGeneratorTest {
         assertEquals(expected, actual);
     }
 
+    /**
+     * Tests that lazySetCover() selects the same test cases as setCover() does given the
+     * results of running every test case.
+     */
+    @Test
+    @Order(12)
+    void testLazySameAsEager() throws IOException, InterruptedException {
+        List<TestCase> allCases = generateIntegerCases(10);
+        Tester eager = buildTester("f0multipleMixedDeterministic", allCases);
+        eager.computeExpectedResults();
+        Set<TestCase> expected = ConciseSetGenerator.setCover(eager.runTests());
+
+        Tester lazy = buildTester("f0multipleMixedDeterministic", allCases);
+        lazy.computeExpectedResults();
+        Set<TestCase> actual = ConciseSetGenerator.lazySetCover(lazy);
+        assertEquals(expected, actual);
+        assertEquals(Set.of(allCases.get(2), allCases.get(7)), actual);
+    }
+
+    /**
+     * Tests that lazySetCover() selects no test cases when every implementation is
+     * correct.
+     */
+    @Test
+    @Order(13)
+    void testLazyAllRight() throws IOException, InterruptedException {
+        Tester tester = buildTester("f0multipleRight", generateIntegerCases(10));
+        tester.computeExpectedResults();
+        assertEquals(Set.of(), ConciseSetGenerator.lazySetCover(tester));
+    }
+
+    /**
+     * Tests that lazySetCover() selects the same test cases as setCover() does in every
+     * execution mode, including on an implementation that mutates its own globals, and
+     * that only WORKER_POOL mode starts a pool of workers, which it does only once
+     * however many rounds it runs.
+     */
+    @Test
+    @Order(14)
+    void testLazyReusesWorkers() throws IOException, InterruptedException {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            for (String implDir : List.of("f0multipleMixedDeterministic", "f0oneMutates")) {
+                List<TestCase> allCases = generateIntegerCases(
+                        implDir.equals("f0oneMutates") ? 4 : 10);
+                Tester eager = buildTester(implDir, allCases);
+                eager.setExecutionMode(mode);
+                eager.setPoolSize(1);
+                eager.computeExpectedResults();
+                Set<TestCase> expected = ConciseSetGenerator.setCover(eager.runTests());
+
+                Tester lazy = buildTester(implDir, allCases);
+                lazy.setExecutionMode(mode);
+                lazy.setPoolSize(1);
+                lazy.computeExpectedResults();
+                long spawned = lazy.getMetrics().timer("tester.process.spawn").getCount();
+                Set<TestCase> actual = ConciseSetGenerator.lazySetCover(lazy);
+                if (mode == ExecutionMode.BATCHED && implDir.equals("f0oneMutates")) {
+                    // Each lazy round runs its case in a batch of its own, so no state
+                    // is shared between cases, unlike in a full batched run
+                    assertEquals(Set.of(), actual);
+                } else {
+                    assertEquals(expected, actual);
+                }
+
+                if (mode == ExecutionMode.WORKER_POOL) {
+                    assertEquals(1, lazy.getMetrics().timer("tester.pool.start").getCount());
+                    assertEquals(spawned,
+                            lazy.getMetrics().timer("tester.process.spawn").getCount());
+                } else {
+                    assertEquals(0, lazy.getMetrics().timer("tester.pool.start").getCount());
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper function which builds a Tester for func0 on one of the implementation
+     * directories in the test.rice.test.pyfiles package.
+     *
+     * @param implDir  the name of the implementation directory
+     * @param allCases the test cases to be run
+     * @return the Tester
+     */
+    private static Tester buildTester(String implDir, List<TestCase> allCases) {
+        String pyfiles = System.getProperty("user.dir") + "/src/test/rice/test/pyfiles/";
+        return new Tester("func0", pyfiles + "sols/func0sol.py", pyfiles + implDir,
+                allCases);
+    }
+
     /**
      * Helper function which generates an allCases list containing integers from 0 to
      * numTests - 1, inclusive.
@@ -0,0 +1,99 @@
+package test.rice.metrics;
+
+import main.rice.metrics.Histogram;
+import main.rice.metrics.Timer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for the Histogram and Timer classes.
+ */
+class HistogramTest {
+
+    /**
+     * Tests the statistics of an empty histogram.
+     */
+    @Test
+    void testEmpty() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    /**
+     * Tests the exact statistics of a histogram.
+     */
+    @Test
+    void testStatistics() {
+        Histogram histogram = new Histogram();
+        for (long value : new long[]{5, 1, 10, 0}) {
+            histogram.record(value);
+        }
+        assertEquals(4, histogram.getCount());
+        assertEquals(16, histogram.getSum());
+        assertEquals(0, histogram.getMin());
+        assertEquals(10, histogram.getMax());
+        assertEquals(4.0, histogram.getMean());
+    }
+
+    /**
+     * Tests that estimated percentiles are within a factor of two of the true values,
+     * and never exceed the largest value.
+     */
+    @Test
+    void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 50 && median <= 100);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 99 && p99 <= 100);
+        assertEquals(100, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(0));
+    }
+
+    /**
+     * Tests that negative values are recorded as zero.
+     */
+    @Test
+    void testNegative() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getMax());
+    }
+
+    /**
+     * Tests that out-of-range percentiles are rejected.
+     */
+    @Test
+    void testPercentileOutOfRange() {
+        Histogram histogram = new Histogram();
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+    }
+
+    /**
+     * Tests that a timer records the time elapsed between start() and stop().
+     */
+    @Test
+    void testTimer() throws InterruptedException {
+        Timer timer = new Timer();
+        long start = timer.start();
+        Thread.sleep(5);
+        long elapsed = timer.stop(start);
+        assertTrue(elapsed >= 5_000_000);
+        assertEquals(1, timer.getCount());
+        assertEquals(elapsed, timer.getSum());
+    }
+}
@@ -0,0 +1,97 @@
+package test.rice.metrics;
+
+import main.rice.metrics.Counter;
+import main.rice.metrics.Metrics;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for the Metrics and Counter classes.
+ */
+class MetricsTest {
+
+    /**
+     * Tests that looking up a metric twice returns the same metric.
+     */
+    @Test
+    void testLookUpSame() {
+        Metrics metrics = new Metrics();
+        assertSame(metrics.counter("a"), metrics.counter("a"));
+        assertSame(metrics.histogram("b"), metrics.histogram("b"));
+        assertSame(metrics.timer("c"), metrics.timer("c"));
+    }
+
+    /**
+     * Tests that a name can't be used by metrics of two kinds.
+     */
+    @Test
+    void testLookUpWrongKind() {
+        Metrics metrics = new Metrics();
+        metrics.counter("a");
+        metrics.timer("b");
+        assertThrows(IllegalArgumentException.class, () -> metrics.timer("a"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.histogram("b"));
+    }
+
+    /**
+     * Tests counting from several threads at once.
+     */
+    @Test
+    void testCounterConcurrent() throws InterruptedException {
+        Counter counter = new Metrics().counter("a");
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    counter.increment();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        counter.add(5);
+        assertEquals(4005, counter.get());
+    }
+
+    /**
+     * Tests dumping metrics as text, which lists them in order of name.
+     */
+    @Test
+    void testToText() {
+        Metrics metrics = new Metrics();
+        metrics.counter("b.count").add(3);
+        metrics.histogram("a.bytes").record(4);
+        metrics.timer("c.time").record(8);
+        assertEquals("a.bytes histogram count=1 sum=4 mean=4 min=4 p50=4 p99=4 max=4\n" +
+                "b.count counter value=3\n" +
+                "c.time timer count=1 sum=8 mean=8 min=8 p50=8 p99=8 max=8\n",
+                metrics.toText());
+    }
+
+    /**
+     * Tests dumping metrics as JSON.
+     */
+    @Test
+    void testToJson() {
+        Metrics metrics = new Metrics();
+        metrics.counter("b.count").add(3);
+        metrics.timer("c.time").record(8);
+        JSONObject json = metrics.toJson();
+        assertEquals(2, json.length());
+        assertEquals("counter", json.getJSONObject("b.count").getString("kind"));
+        assertEquals(3, json.getJSONObject("b.count").getLong("value"));
+        assertEquals("timer", json.getJSONObject("c.time").getString("kind"));
+        assertEquals(1, json.getJSONObject("c.time").getLong("count"));
+        assertEquals(8, json.getJSONObject("c.time").getLong("max"));
+    }
+}
@@ -310,4 +310,36 @@ class PyListNodeTest extends AIterablePyNodeTest {
         // Compare the actual and expected distributions
         assertTrue(compareDistribution(expectedRandNested, actual, 0.01));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that iterExVals() produces each list of the exhaustive domain exactly once,
+     * from the shortest to the longest.
+     */
+    @Test
+    @Order(21)
+    void testIterExValsMultLensNonContig() {
+        List<PyListObj<PyFloatObj>> actual = new ArrayList<>();
+        lensZeroToThree.iterExVals().forEachRemaining(actual::add);
+        assertEquals(expectedLenZeroToThree, new HashSet<>(actual));
+        assertEquals(expectedLenZeroToThree.size(), actual.size());
+        for (int i = 1; i < actual.size(); i++) {
+            assertTrue(actual.get(i - 1).getValue().size()
+                    <= actual.get(i).getValue().size());
+        }
+    }
+
+    /**
+     * Tests that iterExVals() produces nested lists lazily, and stops after the last one.
+     */
+    @Test
+    @Order(22)
+    void testIterExValsNested() {
+        Iterator<PyListObj<PyListObj<PyBoolObj>>> iter = nestedBools.iterExVals();
+        Set<PyListObj<PyListObj<PyBoolObj>>> actual = new HashSet<>();
+        while (iter.hasNext()) {
+            assertTrue(actual.add(iter.next()));
+        }
+        assertEquals(expectedNested, actual);
+        assertThrows(NoSuchElementException.class, iter::next);
+    }
+}
@@ -462,6 +462,38 @@ class PySetNodeTest extends APyNodeTest {
         assertTrue(compareDistribution(expected, actual, 0.01));
     }
 
+    /**
+     * Tests genExVals() and iterExVals() on sets of several sizes drawn from five
+     * elements; each combination should be produced exactly once, and sizes larger than
+     * the number of elements should produce nothing.
+     */
+    @Test
+    @Order(21)
+    void testGenExValsCombinations() {
+        PyIntNode child = new PyIntNode();
+        child.setExDomain(Arrays.asList(0, 1, 2, 3, 4));
+        PySetNode<PyIntObj> node = new PySetNode<>(child);
+        node.setExDomain(Arrays.asList(0, 2, 5, 7));
+
+        // Build the expected results: the empty set, the ten sets of size two, and the
+        // set of all five elements
+        Set<PySetObj<PyIntObj>> expected = new HashSet<>();
+        expected.add(new PySetObj<>(new HashSet<>()));
+        for (int i = 0; i < 5; i++) {
+            for (int j = i + 1; j < 5; j++) {
+                expected.add(new PySetObj<>(Set.of(new PyIntObj(i), new PyIntObj(j))));
+            }
+        }
+        expected.add(new PySetObj<>(Set.of(new PyIntObj(0), new PyIntObj(1),
+                new PyIntObj(2), new PyIntObj(3), new PyIntObj(4))));
+
+        assertEquals(expected, node.genExVals());
+        List<PySetObj<PyIntObj>> actual = new ArrayList<>();
+        node.iterExVals().forEachRemaining(actual::add);
+        assertEquals(12, actual.size());
+        assertEquals(expected, new HashSet<>(actual));
+    }
+
     /**
      * Sets up emptyOnly.
      */
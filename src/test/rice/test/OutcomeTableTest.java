@@ -0,0 +1,106 @@
+package test.rice.test;
+
+import main.rice.test.OutcomeTable;
+import main.rice.test.TestOutcome;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for the OutcomeTable class.
+ */
+class OutcomeTableTest {
+
+    /**
+     * Tests that every cell of a new table is empty.
+     */
+    @Test
+    void testGetEmpty() {
+        OutcomeTable table = new OutcomeTable(2, 3);
+        assertEquals(2, table.getNumCases());
+        assertEquals(3, table.getNumFiles());
+        for (int caseIndex = 0; caseIndex < 2; caseIndex++) {
+            for (int fileIndex = 0; fileIndex < 3; fileIndex++) {
+                assertNull(table.get(caseIndex, fileIndex));
+            }
+        }
+    }
+
+    /**
+     * Tests that put() stores an outcome in its cell only.
+     */
+    @Test
+    void testPutGet() {
+        OutcomeTable table = new OutcomeTable(2, 3);
+        TestOutcome outcome = new TestOutcome(TestOutcome.Kind.ERROR, "IndexError", 10);
+        table.put(1, 2, outcome);
+        assertEquals(outcome, table.get(1, 2));
+        assertNull(table.get(0, 2));
+        assertNull(table.get(1, 1));
+    }
+
+    /**
+     * Tests that put() replaces an existing outcome, including its exception type.
+     */
+    @Test
+    void testPutReplaces() {
+        OutcomeTable table = new OutcomeTable(1, 1);
+        table.put(0, 0, new TestOutcome(TestOutcome.Kind.ERROR, "IndexError", 10));
+        TestOutcome outcome = new TestOutcome(TestOutcome.Kind.PASS, null, 20);
+        table.put(0, 0, outcome);
+        assertEquals(outcome, table.get(0, 0));
+    }
+
+    /**
+     * Tests the total elapsed times per test case and per file, which skip empty cells
+     * and unknown elapsed times.
+     */
+    @Test
+    void testElapsedNanos() {
+        OutcomeTable table = new OutcomeTable(2, 2);
+        table.put(0, 0, new TestOutcome(TestOutcome.Kind.PASS, null, 10));
+        table.put(0, 1, new TestOutcome(TestOutcome.Kind.WRONG, null, 20));
+        table.put(1, 0, new TestOutcome(TestOutcome.Kind.CRASH, null, -1));
+        assertEquals(30, table.getCaseElapsedNanos(0));
+        assertEquals(0, table.getCaseElapsedNanos(1));
+        assertEquals(10, table.getFileElapsedNanos(0));
+        assertEquals(20, table.getFileElapsedNanos(1));
+    }
+
+    /**
+     * Tests that cells outside of the table are rejected.
+     */
+    @Test
+    void testOutOfRange() {
+        OutcomeTable table = new OutcomeTable(2, 3);
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(0, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.put(-1, 0,
+                new TestOutcome(TestOutcome.Kind.PASS, null, 0)));
+    }
+
+    /**
+     * Tests that a table whose cell count overflows an int can be built, and only
+     * allocates storage for the files it records outcomes for.
+     */
+    @Test
+    void testLargeSparse() {
+        OutcomeTable table = new OutcomeTable(1 << 20, 1 << 12);
+        TestOutcome outcome = new TestOutcome(TestOutcome.Kind.WRONG, null, 5);
+        table.put((1 << 20) - 1, (1 << 12) - 1, outcome);
+        assertEquals(outcome, table.get((1 << 20) - 1, (1 << 12) - 1));
+        assertNull(table.get(0, 0));
+        assertEquals(5, table.getFileElapsedNanos((1 << 12) - 1));
+    }
+
+    /**
+     * Tests that negative table sizes are rejected.
+     */
+    @Test
+    void testNegativeSize() {
+        assertThrows(IllegalArgumentException.class, () -> new OutcomeTable(-1, 2));
+        assertThrows(IllegalArgumentException.class, () -> new OutcomeTable(2, -1));
+    }
+}
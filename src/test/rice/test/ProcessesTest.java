@@ -0,0 +1,95 @@
+package test.rice.test;
+
+import main.rice.test.Processes;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test cases for the Processes class.
+ */
+class ProcessesTest {
+
+    /**
+     * Tests readLastLine() on an empty stream.
+     */
+    @Test
+    void testReadLastLineEmpty() throws IOException {
+        assertEquals("", readLastLine("", 100));
+    }
+
+    /**
+     * Tests readLastLine() on a stream whose last line is terminated.
+     */
+    @Test
+    void testReadLastLineTerminated() throws IOException {
+        assertEquals("True", readLastLine("hello world!\nTrue\n", 100));
+    }
+
+    /**
+     * Tests readLastLine() on a stream whose last line is not terminated.
+     */
+    @Test
+    void testReadLastLineUnterminated() throws IOException {
+        assertEquals("False", readLastLine("hello world!\nFalse", 100));
+    }
+
+    /**
+     * Tests readLastLine() on a stream that ends with an empty line.
+     */
+    @Test
+    void testReadLastLineEmptyLast() throws IOException {
+        assertEquals("", readLastLine("True\n\n", 100));
+    }
+
+    /**
+     * Tests readLastLine() on a stream that uses \r\n and \r as line terminators.
+     */
+    @Test
+    void testReadLastLineCarriageReturns() throws IOException {
+        assertEquals("True", readLastLine("a\r\nb\rTrue\r\n", 100));
+    }
+
+    /**
+     * Tests readLastLine() when an earlier line is longer than the cap; only the last
+     * line matters.
+     */
+    @Test
+    void testReadLastLineLongEarlierLine() throws IOException {
+        assertEquals("True", readLastLine("x".repeat(1000) + "\nTrue\n", 10));
+    }
+
+    /**
+     * Tests readLastLine() when the last line is longer than the cap; it should not be
+     * mistaken for a truncated version of itself.
+     */
+    @Test
+    void testReadLastLineLongLastLine() throws IOException {
+        assertEquals("", readLastLine("Truest of all\n", 4));
+    }
+
+    /**
+     * Tests readLastLine() when the last line is exactly as long as the cap.
+     */
+    @Test
+    void testReadLastLineExactlyCap() throws IOException {
+        assertEquals("True", readLastLine("True", 4));
+    }
+
+    /**
+     * Helper function for running readLastLine() on a string.
+     *
+     * @param contents     the contents of the stream to be read
+     * @param maxLineBytes the maximum number of bytes to keep for a single line
+     * @return the result of readLastLine()
+     * @throws IOException if the stream cannot be read
+     */
+    private static String readLastLine(String contents, int maxLineBytes)
+            throws IOException {
+        return Processes.readLastLine(new ByteArrayInputStream(contents.getBytes()),
+                maxLineBytes);
+    }
+}
@@ -0,0 +1,162 @@
+package test.rice.test;
+
+import main.rice.obj.PyIntObj;
+import main.rice.test.ShardResults;
+import main.rice.test.ShardSpec;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for the ShardResults class.
+ */
+class ShardResultsTest {
+
+    /**
+     * Four test cases, each with a single integer argument.
+     */
+    private static final List<TestCase> cases = List.of(
+            new TestCase(Collections.singletonList(new PyIntObj(0))),
+            new TestCase(Collections.singletonList(new PyIntObj(1))),
+            new TestCase(Collections.singletonList(new PyIntObj(2))),
+            new TestCase(Collections.singletonList(new PyIntObj(3))));
+
+    /**
+     * The files caught by each of the test cases, out of three files.
+     */
+    private static final List<Set<Integer>> caught = List.of(
+            Set.of(0), Set.of(), Set.of(0, 2), Set.of(2));
+
+    /**
+     * Tests that results survive being written to a file and read back.
+     */
+    @Test
+    void testWriteRead() throws IOException {
+        ShardSpec shard = new ShardSpec(1, 1, ShardSpec.Axis.CASES);
+        Path path = Files.createTempFile("shard", ".json");
+        try {
+            ShardResults.of(shard, 4, 3, results(cases, caught)).write(path);
+            ShardResults read = ShardResults.read(path);
+            assertEquals(shard, read.getShard());
+            TestResults merged = ShardResults.merge(cases, List.of(read));
+            assertEquals(caught, merged.getCaseToFiles());
+            assertEquals(Set.of(0, 2), merged.getWrongSet());
+            assertFalse(merged.isPartial());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Tests that reading a file that doesn't hold shard results fails.
+     */
+    @Test
+    void testReadMalformed() throws IOException {
+        Path path = Files.createTempFile("shard", ".json");
+        try {
+            Files.writeString(path, "{\"version\": 1}");
+            assertThrows(IOException.class, () -> ShardResults.read(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Tests merging shards split along the test cases, given out of order.
+     */
+    @Test
+    void testMergeCases() {
+        ShardSpec first = new ShardSpec(1, 2, ShardSpec.Axis.CASES);
+        ShardSpec second = new ShardSpec(2, 2, ShardSpec.Axis.CASES);
+        ShardResults firstResults = ShardResults.of(first, 4, 3,
+                results(cases.subList(0, 2), caught.subList(0, 2)));
+        ShardResults secondResults = ShardResults.of(second, 4, 3,
+                results(cases.subList(2, 4), caught.subList(2, 4)));
+        TestResults merged = ShardResults.merge(cases, List.of(secondResults, firstResults));
+        assertEquals(caught, merged.getCaseToFiles());
+        assertEquals(Set.of(0, 2), merged.getWrongSet());
+    }
+
+    /**
+     * Tests merging shards split along the implementations.
+     */
+    @Test
+    void testMergeFiles() {
+        ShardSpec first = new ShardSpec(1, 2, ShardSpec.Axis.FILES);
+        ShardSpec second = new ShardSpec(2, 2, ShardSpec.Axis.FILES);
+        ShardResults firstResults = ShardResults.of(first, 4, 3, results(cases,
+                List.of(Set.of(0), Set.of(), Set.of(0), Set.of())));
+        ShardResults secondResults = ShardResults.of(second, 4, 3, results(cases,
+                List.of(Set.of(), Set.of(), Set.of(2), Set.of(2))));
+        TestResults merged = ShardResults.merge(cases, List.of(firstResults, secondResults));
+        assertEquals(caught, merged.getCaseToFiles());
+        assertEquals(Set.of(0, 2), merged.getWrongSet());
+    }
+
+    /**
+     * Tests that merging fails when a shard is missing or present more than once.
+     */
+    @Test
+    void testMergeIncomplete() {
+        ShardSpec first = new ShardSpec(1, 2, ShardSpec.Axis.FILES);
+        ShardResults firstResults = ShardResults.of(first, 4, 3, results(cases, caught));
+        assertThrows(IllegalArgumentException.class,
+                () -> ShardResults.merge(cases, List.of(firstResults)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ShardResults.merge(cases, List.of(firstResults, firstResults)));
+    }
+
+    /**
+     * Tests that merging fails when a shard ran different test cases.
+     */
+    @Test
+    void testMergeDifferentCases() {
+        ShardSpec shard = new ShardSpec(1, 1, ShardSpec.Axis.CASES);
+        ShardResults shardResults = ShardResults.of(shard, 4, 3, results(cases, caught));
+        List<TestCase> otherCases = new ArrayList<>(cases);
+        Collections.reverse(otherCases);
+        assertThrows(IllegalArgumentException.class,
+                () -> ShardResults.merge(otherCases, List.of(shardResults)));
+    }
+
+    /**
+     * Tests that wrapping results that don't hold the shard's slice of the test cases
+     * fails.
+     */
+    @Test
+    void testOfWrongSlice() {
+        ShardSpec shard = new ShardSpec(1, 2, ShardSpec.Axis.CASES);
+        assertThrows(IllegalArgumentException.class,
+                () -> ShardResults.of(shard, 4, 3, results(cases, caught)));
+    }
+
+    /**
+     * Helper function for building the results of running the given test cases.
+     *
+     * @param tests  the test cases that were run
+     * @param caught the files caught by each of the test cases
+     * @return the results
+     */
+    private static TestResults results(List<TestCase> tests, List<Set<Integer>> caught) {
+        List<Set<Integer>> caseToFiles = new ArrayList<>();
+        Set<Integer> wrongSet = new HashSet<>();
+        for (Set<Integer> files : caught) {
+            caseToFiles.add(new HashSet<>(files));
+            wrongSet.addAll(files);
+        }
+        return new TestResults(tests, caseToFiles, wrongSet);
+    }
+}
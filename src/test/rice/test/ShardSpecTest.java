@@ -0,0 +1,52 @@
+package test.rice.test;
+
+import main.rice.test.ShardSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test cases for the ShardSpec class.
+ */
+class ShardSpecTest {
+
+    /**
+     * Tests parsing a valid shard.
+     */
+    @Test
+    void testParse() {
+        ShardSpec shard = ShardSpec.parse("2/4", ShardSpec.Axis.FILES);
+        assertEquals(new ShardSpec(2, 4, ShardSpec.Axis.FILES), shard);
+        assertEquals("2/4", shard.toString());
+    }
+
+    /**
+     * Tests that malformed shards, and shards that aren't one of the job's, are rejected.
+     */
+    @Test
+    void testParseInvalid() {
+        for (String spec : new String[]{"2", "a/4", "2/b", "0/4", "5/4", "1/0", "-1/4"}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> ShardSpec.parse(spec, ShardSpec.Axis.CASES));
+        }
+    }
+
+    /**
+     * Tests that the slices of every shard of a job cover the whole axis, in order and
+     * without overlapping.
+     */
+    @Test
+    void testSlices() {
+        for (int size : new int[]{0, 1, 7, 10}) {
+            int next = 0;
+            for (int index = 1; index <= 3; index++) {
+                ShardSpec shard = new ShardSpec(index, 3, ShardSpec.Axis.CASES);
+                assertEquals(next, shard.start(size));
+                assertEquals(size / 3, shard.end(size) - shard.start(size), 1);
+                next = shard.end(size);
+            }
+            assertEquals(size, next);
+        }
+    }
+}
@@ -347,6 +347,57 @@ class TestCaseTest {
         assertNotEquals(oneArgSimple.hashCode(), multipleArgsSimple.hashCode());
     }
 
+    /**
+     * Tests that two test cases whose sets and dicts were built in different orders have
+     * the same fingerprint, even though their string representations differ.
+     */
+    @Test
+    @Order(26)
+    void testGetFingerprintIgnoresOrder() {
+        Set<PyIntObj> ascending = new LinkedHashSet<>();
+        Set<PyIntObj> descending = new LinkedHashSet<>();
+        Map<PyIntObj, PyStringObj> ascendingDict = new LinkedHashMap<>();
+        Map<PyIntObj, PyStringObj> descendingDict = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            ascending.add(new PyIntObj(i));
+            descending.add(new PyIntObj(2 - i));
+            ascendingDict.put(new PyIntObj(i), new PyStringObj("v" + i));
+            descendingDict.put(new PyIntObj(2 - i), new PyStringObj("v" + (2 - i)));
+        }
+        TestCase first = new TestCase(List.of(new PySetObj<>(ascending),
+                new PyDictObj<>(ascendingDict)));
+        TestCase second = new TestCase(List.of(new PySetObj<>(descending),
+                new PyDictObj<>(descendingDict)));
+
+        assertNotEquals(first.toString(), second.toString());
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+    }
+
+    /**
+     * Tests that the fingerprint distinguishes a list from a tuple with the same elements.
+     */
+    @Test
+    @Order(27)
+    void testGetFingerprintListVsTuple() {
+        List<PyIntObj> elems = List.of(new PyIntObj(1), new PyIntObj(2));
+        TestCase list = new TestCase(List.of(new PyListObj<>(elems)));
+        TestCase tuple = new TestCase(List.of(new PyTupleObj<>(elems)));
+        assertNotEquals(list.getFingerprint(), tuple.getFingerprint());
+    }
+
+    /**
+     * Tests that two identical test cases with multiple nested args have the same
+     * fingerprint, and that different test cases don't.
+     */
+    @Test
+    @Order(28)
+    void testGetFingerprintNested() {
+        assertEquals(multipleArgsNested.getFingerprint(),
+                multipleArgsNested2.getFingerprint());
+        assertNotEquals(oneArgNested.getFingerprint(),
+                multipleArgsNested.getFingerprint());
+    }
+
     /**
      * Set up oneArgSimple, oneArgSimple2, and oneArgSimpleVal for use in the test cases.
      */
@@ -0,0 +1,69 @@
+package test.rice.test;
+
+import main.rice.test.TestOutcome;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for the TestOutcome class.
+ */
+class TestOutcomeTest {
+
+    /**
+     * Tests parse() on the record of a passing test case.
+     */
+    @Test
+    void testParsePass() {
+        TestOutcome outcome = TestOutcome.parse("1 1500");
+        assertEquals(new TestOutcome(TestOutcome.Kind.PASS, null, 1500), outcome);
+        assertTrue(outcome.passed());
+    }
+
+    /**
+     * Tests parse() on the record of a test case that returned the wrong result.
+     */
+    @Test
+    void testParseWrong() {
+        TestOutcome outcome = TestOutcome.parse("0 27");
+        assertEquals(new TestOutcome(TestOutcome.Kind.WRONG, null, 27), outcome);
+        assertFalse(outcome.passed());
+    }
+
+    /**
+     * Tests parse() on the record of a test case that raised an exception.
+     */
+    @Test
+    void testParseError() {
+        assertEquals(new TestOutcome(TestOutcome.Kind.ERROR, "ZeroDivisionError", 900),
+                TestOutcome.parse("E 900 ZeroDivisionError"));
+    }
+
+    /**
+     * Tests parse() on the records of test cases that exceeded a limit.
+     */
+    @Test
+    void testParseLimits() {
+        assertEquals(TestOutcome.Kind.TIMEOUT, TestOutcome.parse("T 5").kind());
+        assertEquals(TestOutcome.Kind.MEMORY_LIMIT,
+                TestOutcome.parse("M 5 MemoryError").kind());
+        assertEquals(TestOutcome.Kind.CPU_LIMIT,
+                TestOutcome.parse("C 5 CpuLimitExceeded").kind());
+    }
+
+    /**
+     * Tests parse() on malformed records.
+     */
+    @Test
+    void testParseMalformed() {
+        assertNull(TestOutcome.parse(""));
+        assertNull(TestOutcome.parse("True"));
+        assertNull(TestOutcome.parse("1"));
+        assertNull(TestOutcome.parse("Q 5"));
+        assertNull(TestOutcome.parse("1 fast"));
+        assertNull(TestOutcome.parse("11 5"));
+    }
+}
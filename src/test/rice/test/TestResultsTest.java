@@ -3,14 +3,19 @@ package test.rice.test;
 import main.rice.obj.PyBoolObj;
 import main.rice.obj.PyIntObj;
 import main.rice.obj.PyStringObj;
+import main.rice.test.OutcomeTable;
 import main.rice.test.TestCase;
+import main.rice.test.TestOutcome;
 import main.rice.test.TestResults;
 import org.junit.jupiter.api.*;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test cases for the TestResults class.
@@ -175,4 +180,108 @@ class TestResultsTest {
     void testGetCaseToFilesNonEmpty() {
         assertEquals(new ArrayList<>(someFilesFail), someFail.getCaseToFiles());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests getCaseToTimeouts() when the TestResults was built without timeouts.
+     */
+    @Test
+    @Order(10)
+    void testGetCaseToTimeoutsNone() {
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(new HashSet<>());
+        }
+        assertEquals(expected, someFail.getCaseToTimeouts());
+    }
+
+    /**
+     * Tests getCaseToTimeouts() when some files timed out on some tests.
+     */
+    @Test
+    @Order(11)
+    void testGetCaseToTimeoutsNonEmpty() {
+        List<Set<Integer>> caseToTimeouts = List.of(Set.of(1), Set.of());
+        TestResults results = new TestResults(testCases.subList(0, 2),
+                List.of(Set.of(1), Set.of(3)), Set.of(1, 3), caseToTimeouts,
+                List.of(Set.of(), Set.of()), new OutcomeTable(2, 0), false);
+        assertEquals(caseToTimeouts, results.getCaseToTimeouts());
+    }
+
+    /**
+     * Tests that results are complete by default.
+     */
+    @Test
+    @Order(12)
+    void testIsPartialDefault() {
+        TestResults results = new TestResults(testCases.subList(0, 2),
+                List.of(Set.of(1), Set.of(3)), Set.of(1, 3));
+        assertFalse(results.isPartial());
+    }
+
+    /**
+     * Tests that results can be marked as partial.
+     */
+    @Test
+    @Order(13)
+    void testIsPartial() {
+        TestResults results = new TestResults(testCases.subList(0, 2),
+                List.of(Set.of(1), Set.of(3)), Set.of(1, 3),
+                List.of(Set.of(), Set.of()), List.of(Set.of(), Set.of()),
+                new OutcomeTable(2, 0), true);
+        assertTrue(results.isPartial());
+    }
+
+    /**
+     * Tests that no file exceeded a resource limit by default.
+     */
+    @Test
+    @Order(14)
+    void testGetCaseToLimitBreachesDefault() {
+        TestResults results = new TestResults(testCases.subList(0, 2),
+                List.of(Set.of(1), Set.of(3)), Set.of(1, 3));
+        assertEquals(List.of(Set.of(), Set.of()), results.getCaseToLimitBreaches());
+    }
+
+    /**
+     * Tests getCaseToLimitBreaches() when some files exceeded a resource limit on some
+     * tests.
+     */
+    @Test
+    @Order(15)
+    void testGetCaseToLimitBreachesNonEmpty() {
+        List<Set<Integer>> caseToLimitBreaches = List.of(Set.of(), Set.of(3));
+        TestResults results = new TestResults(testCases.subList(0, 2),
+                List.of(Set.of(1), Set.of(3)), Set.of(1, 3),
+                List.of(Set.of(), Set.of()), caseToLimitBreaches, new OutcomeTable(2, 0),
+                false);
+        assertEquals(caseToLimitBreaches, results.getCaseToLimitBreaches());
+    }
+
+    /**
+     * Tests that no outcomes are recorded by default.
+     */
+    @Test
+    @Order(16)
+    void testGetOutcomesDefault() {
+        TestResults results = new TestResults(testCases.subList(0, 2),
+                List.of(Set.of(1), Set.of(3)), Set.of(1, 3));
+        assertEquals(2, results.getOutcomes().getNumCases());
+        assertEquals(0, results.getOutcomes().getNumFiles());
+    }
+
+    /**
+     * Tests getOutcomes() when the outcome of a test case on a file was recorded.
+     */
+    @Test
+    @Order(17)
+    void testGetOutcomesNonEmpty() {
+        OutcomeTable outcomes = new OutcomeTable(2, 4);
+        TestOutcome outcome = new TestOutcome(TestOutcome.Kind.ERROR, "KeyError", 42);
+        outcomes.put(1, 3, outcome);
+        TestResults results = new TestResults(testCases.subList(0, 2),
+                List.of(Set.of(1), Set.of(3)), Set.of(1, 3),
+                List.of(Set.of(), Set.of()), List.of(Set.of(), Set.of()), outcomes, false);
+        assertSame(outcomes, results.getOutcomes());
+        assertEquals(outcome, results.getOutcomes().get(1, 3));
+    }
+}
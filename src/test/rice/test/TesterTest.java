@@ -1,15 +1,23 @@
 package test.rice.test;
 
+import main.rice.metrics.Metrics;
 import main.rice.obj.*;
+import main.rice.test.ExecutionMode;
+import main.rice.test.OutcomeTable;
+import main.rice.test.ShardSpec;
 import main.rice.test.TestCase;
+import main.rice.test.TestOutcome;
 import main.rice.test.TestResults;
 import main.rice.test.Tester;
 import org.junit.jupiter.api.*;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -910,6 +918,1152 @@ class TesterTest {
                 f3resultStr, Set.of(0, 1, 2), expected, 1);
     }
 
+    /**
+     * Tests running a mix of passing and failing tests on multiple implementations of a
+     * function that takes one simple argument using a pool of workers; checks
+     * caseToFiles.
+     */
+    @Test
+    @Order(46)
+    void testRunTestsWorkerPoolMixed() {
+        runTestsHelper("func0", f0Tests, "f0multipleMixed",
+                "results = [0, 1, 2, 3, 4]", Set.of(0, 1),
+                List.of(Set.of(0), Set.of(1), Set.of(0), Set.of(1), Set.of(0)), 1,
+                tester -> {
+                    tester.setExecutionMode(ExecutionMode.WORKER_POOL);
+                    tester.setPoolSize(2);
+                });
+    }
+
+    /**
+     * Tests running tests using a pool of workers on an implementation that prints,
+     * which must not interfere with the protocol between the Tester and the workers.
+     */
+    @Test
+    @Order(47)
+    void testRunTestsWorkerPoolPrints() {
+        runTestsHelper("func0", f0Tests, "f0onePrints",
+                "results = [0, 1, 2, 3, 4]", Set.of(),
+                List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.WORKER_POOL));
+    }
+
+    /**
+     * Tests running tests using a single worker on malformed implementations (which
+     * raise exceptions or can't be called), all of which should fail every test.
+     */
+    @Test
+    @Order(48)
+    void testRunTestsWorkerPoolMalformed() {
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            expected.add(Set.of(0, 1, 2));
+        }
+        runTestsHelper("func3", f3Tests, "f3malformed",
+                f3resultStr, Set.of(0, 1, 2), expected, 1,
+                tester -> {
+                    tester.setExecutionMode(ExecutionMode.WORKER_POOL);
+                    tester.setPoolSize(1);
+                });
+    }
+
+    /**
+     * Tests running a mix of passing and failing tests on multiple implementations of a
+     * function that takes multiple nested arguments using a pool of workers; checks
+     * wrongSet.
+     */
+    @Test
+    @Order(49)
+    void testRunTestsWorkerPoolMixedComplex() {
+        runTestsHelper("func3", f3Tests, "f3multipleMixed",
+                f3resultStr, Set.of(0, 1, 2), null, 0,
+                tester -> tester.setExecutionMode(ExecutionMode.WORKER_POOL));
+    }
+
+    /**
+     * Tests running a test that crashes the interpreter using a pool of workers; only
+     * the crashing case should fail, and the worker should recover for later cases.
+     */
+    @Test
+    @Order(50)
+    void testRunTestsWorkerPoolCrash() {
+        runTestsHelper("func0", f0Tests, "f0oneCrashes",
+                "results = [0, 1, 2, 3, 4]", Set.of(0),
+                List.of(Set.of(), Set.of(), Set.of(0), Set.of(), Set.of()), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.WORKER_POOL));
+    }
+
+    /**
+     * Tests running a mix of passing and failing tests on multiple implementations of a
+     * function that takes one simple argument in batched mode; checks caseToFiles.
+     */
+    @Test
+    @Order(51)
+    void testRunTestsBatchedMixed() {
+        runTestsHelper("func0", f0Tests, "f0multipleMixed",
+                "results = [0, 1, 2, 3, 4]", Set.of(0, 1),
+                List.of(Set.of(0), Set.of(1), Set.of(0), Set.of(1), Set.of(0)), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.BATCHED));
+    }
+
+    /**
+     * Tests running tests in batched mode on an implementation that prints, which must
+     * not interfere with the verdicts reported by the wrapper.
+     */
+    @Test
+    @Order(52)
+    void testRunTestsBatchedPrints() {
+        runTestsHelper("func0", f0Tests, "f0onePrints",
+                "results = [0, 1, 2, 3, 4]", Set.of(),
+                List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.BATCHED));
+    }
+
+    /**
+     * Tests running tests in batched mode on malformed implementations, all of which
+     * should fail every test.
+     */
+    @Test
+    @Order(53)
+    void testRunTestsBatchedMalformed() {
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            expected.add(Set.of(0, 1, 2));
+        }
+        runTestsHelper("func3", f3Tests, "f3malformed",
+                f3resultStr, Set.of(0, 1, 2), expected, 1,
+                tester -> tester.setExecutionMode(ExecutionMode.BATCHED));
+    }
+
+    /**
+     * Tests running a test that crashes the interpreter in batched mode; only the
+     * crashing case should fail, and the remaining cases should still be run.
+     */
+    @Test
+    @Order(54)
+    void testRunTestsBatchedCrash() {
+        runTestsHelper("func0", f0Tests, "f0oneCrashes",
+                "results = [0, 1, 2, 3, 4]", Set.of(0),
+                List.of(Set.of(), Set.of(), Set.of(0), Set.of(), Set.of()), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.BATCHED));
+    }
+
+    /**
+     * Tests computeExpectedResults() when running the solution in chunks on a function
+     * that takes multiple simple arguments.
+     */
+    @Test
+    @Order(55)
+    void testGetExpectedResultsBatchedChunks() {
+        List<String> expected = new ArrayList<>();
+        for (TestCase test : f1Tests) {
+            if ((boolean) test.getArgs().get(0).getValue()) {
+                expected.add(String.valueOf((int) test.getArgs().get(1).getValue()
+                        * (double) test.getArgs().get(2).getValue()));
+            } else {
+                expected.add(String.valueOf((int) test.getArgs().get(1).getValue()
+                        + (double) test.getArgs().get(2).getValue()));
+            }
+        }
+        expectedHelper("func1", f1Tests, "func1sol.py", expected,
+                tester -> tester.setSolutionBatchSize(3));
+    }
+
+    /**
+     * Tests computeExpectedResults() when running the solution in a single process on a
+     * function that takes multiple nested arguments.
+     */
+    @Test
+    @Order(56)
+    void testGetExpectedResultsBatchedSingleProcess() {
+        List<String> expected = List.of("('5', '6')", "('5', '6')", "('4', '5')",
+                "('5', '6')", "('3', '4')", "('3', '4')", "('3', '4')", "('3', '4')");
+        expectedHelper("func3", f3Tests, "func3sol.py", expected,
+                tester -> tester.setSolutionBatchSize(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Checks that computeExpectedResults() creates the same expected.py when running the
+     * solution in batches as when running each test case separately.
+     */
+    @Test
+    @Order(57)
+    void testWritesExpectedPyFileBatched() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0oneRight";
+        Tester tester = new Tester("func0", userDir +
+                "/src/test/rice/test/pyfiles/sols/func0sol.py", implDirPath, f0Tests);
+        tester.setSolutionBatchSize(2);
+        try {
+            writeSolContents(0);
+            tester.computeExpectedResults();
+            String actualContents = Files.readString(Paths.get(implDirPath + "/expected.py"));
+            assertEquals("results = [0, 1, 2, 3, 4]", actualContents);
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    /**
+     * Tests running a mix of passing and failing tests on multiple implementations of a
+     * function that takes multiple nested arguments concurrently; checks caseToFiles.
+     */
+    @Test
+    @Order(58)
+    @SuppressWarnings("unchecked")
+    void testRunTestsConcurrentMixedComplex() {
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (TestCase test : f3Tests) {
+            if (((Set<PyIntObj>) test.getArgs().get(0).getValue()).size() != 0) {
+                expected.add(Set.of(2));
+            } else {
+                Set<Integer> wrongSet = new HashSet<>();
+                wrongSet.add(1);
+                if (((List<PyIntObj>) test.getArgs().get(2).getValue()).size()
+                        >= ((List<PyIntObj>) test.getArgs().get(1).getValue()).size()) {
+                    wrongSet.add(0);
+                }
+                expected.add(wrongSet);
+            }
+        }
+        runTestsHelper("func3", f3Tests, "f3multipleMixed", f3resultStr,
+                Set.of(0, 1, 2), expected, 1, 4, tester -> {});
+    }
+
+    /**
+     * Tests running tests concurrently on a single implementation, which requires its
+     * test cases to be split across multiple units of work; checks caseToFiles.
+     */
+    @Test
+    @Order(59)
+    void testRunTestsConcurrentSingleFile() {
+        runTestsHelper("func0", f0Tests, "f0oneCrashes",
+                "results = [0, 1, 2, 3, 4]", Set.of(0),
+                List.of(Set.of(), Set.of(), Set.of(0), Set.of(), Set.of()), 1, 3,
+                tester -> tester.setExecutionMode(ExecutionMode.BATCHED));
+    }
+
+    /**
+     * Tests running tests concurrently on multiple implementations whose names aren't
+     * numbered, making sure that file indices still follow the sorted filename order.
+     */
+    @Test
+    @Order(60)
+    void testRunTestsConcurrentNotNumbered() {
+        runTestsHelper("func0", f0Tests, "f0multipleMixed3",
+                "results = [0, 1, 2, 3, 4]", Set.of(0),
+                List.of(Set.of(0), Collections.emptySet(), Set.of(0), Collections.emptySet(),
+                        Set.of(0)), 1, 2, tester -> {});
+    }
+
+    /**
+     * Tests that a Tester can't be created with a non-positive concurrency.
+     */
+    @Test
+    @Order(61)
+    void testInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/f0oneRight", f0Tests, 0));
+    }
+
+    /**
+     * Tests running tests with a time limit on an implementation that loops forever on
+     * one test case, starting one process per test; checks caseToFiles.
+     */
+    @Test
+    @Order(62)
+    void testRunTestsTimeout() {
+        timeoutHelper(ExecutionMode.PROCESS_PER_TEST);
+    }
+
+    /**
+     * Tests running tests with a time limit on an implementation that loops forever on
+     * one test case in batched mode; checks caseToFiles.
+     */
+    @Test
+    @Order(63)
+    void testRunTestsTimeoutBatched() {
+        timeoutHelper(ExecutionMode.BATCHED);
+    }
+
+    /**
+     * Tests running tests with a time limit on an implementation that loops forever on
+     * one test case using a pool of workers; checks caseToFiles.
+     */
+    @Test
+    @Order(64)
+    void testRunTestsTimeoutWorkerPool() {
+        timeoutHelper(ExecutionMode.WORKER_POOL);
+    }
+
+    /**
+     * Tests running tests on an implementation that prints far more than the OS pipe
+     * buffer can hold before returning, which must not stall the Tester.
+     */
+    @Test
+    @Order(65)
+    void testRunTestsChatty() {
+        runTestsHelper("func0", f0Tests, "f0oneChatty",
+                "results = [0, 1, 2, 3, 4]", Set.of(),
+                List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 1,
+                tester -> tester.setTimeout(30000));
+    }
+
+    /**
+     * Tests running tests with an output cap that is too small for the verdict; every
+     * test should fail, since no verdict can be read.
+     */
+    @Test
+    @Order(66)
+    void testRunTestsOutputCapTooSmall() {
+        runTestsHelper("func0", f0Tests, "f0oneRight",
+                "results = [0, 1, 2, 3, 4]", Set.of(0),
+                List.of(Set.of(0), Set.of(0), Set.of(0), Set.of(0), Set.of(0)), 1,
+                tester -> tester.setMaxOutputBytes(3));
+    }
+
+    /**
+     * Tests that expected results cached by one Tester are reused by a fresh Tester for
+     * the same solution, without running the solution at all: the second Tester's time
+     * limit is too short for the solution to produce any result, so every result it
+     * returns must have come from the cache.
+     */
+    @Test
+    @Order(67)
+    void testGetExpectedResultsCached() throws IOException {
+        Path cacheDir = Files.createTempDirectory("expected-cache");
+        try {
+            List<String> expected = List.of("0", "1", "2", "3", "4");
+            expectedHelper("func0", f0Tests, "func0sol.py", expected,
+                    tester -> tester.setExpectedResultsCache(cacheDir.toString()));
+            expectedHelper("func0", f0Tests, "func0sol.py", expected, tester -> {
+                tester.setExpectedResultsCache(cacheDir.toString());
+                tester.setTimeout(1);
+            });
+        } finally {
+            deleteDirectory(cacheDir);
+        }
+    }
+
+    /**
+     * Tests that changing the solution invalidates the expected results cached for the
+     * old version of it.
+     */
+    @Test
+    @Order(68)
+    void testGetExpectedResultsCacheInvalidated() throws IOException {
+        Path cacheDir = Files.createTempDirectory("expected-cache");
+        String solPath = userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py";
+        try {
+            expectedHelper("func0", f0Tests, "func0sol.py", List.of("0", "1", "2", "3", "4"),
+                    tester -> tester.setExpectedResultsCache(cacheDir.toString()));
+
+            // Change the solution and compute the expected results again
+            Files.writeString(Paths.get(solPath), "def func0(intval):\n    return -intval");
+            Tester tester = new Tester("func0", solPath, userDir +
+                    "/src/test/rice/test/pyfiles/f0oneRight", f0Tests);
+            tester.setExpectedResultsCache(cacheDir.toString());
+            assertEquals(List.of("0", "-1", "-2", "-3", "-4"),
+                    tester.computeExpectedResults());
+        } catch (InterruptedException e) {
+            fail();
+        } finally {
+            writeSolContents(0);
+            deleteDirectory(cacheDir);
+        }
+    }
+
+    /**
+     * Tests that a second run with a verdict cache gives the same results as the first
+     * without running any implementation: the second run mustn't start any process, so
+     * every result must have come from the cache.
+     */
+    @Test
+    @Order(69)
+    void testRunTestsVerdictCached() throws IOException {
+        Path cacheDir = Files.createTempDirectory("verdict-cache");
+        try {
+            List<Set<Integer>> expected = List.of(Set.of(), Set.of(0, 1),
+                    Set.of(0, 1, 3, 4), Set.of(3), Set.of(1, 4, 5));
+            runTestsHelper("func0", f0Tests, "f0multipleMixedDeterministic",
+                    "results = [0, 1, 2, 3, 4]", Set.of(), expected, 1,
+                    tester -> tester.setVerdictCache(cacheDir.toString()));
+            Metrics metrics = new Metrics();
+            runTestsHelper("func0", f0Tests, "f0multipleMixedDeterministic",
+                    "results = [0, 1, 2, 3, 4]", Set.of(), expected, 1, tester -> {
+                        tester.setVerdictCache(cacheDir.toString());
+                        tester.setMetrics(metrics);
+                    });
+            assertEquals(0, metrics.timer("tester.process.spawn").getCount());
+        } finally {
+            deleteDirectory(cacheDir);
+        }
+    }
+
+    /**
+     * Tests that only the implementations that changed since the last run are re-run
+     * when using a verdict cache: the re-run should start one process per test case for
+     * the changed implementation, and none for the other.
+     */
+    @Test
+    @Order(70)
+    void testRunTestsVerdictCacheChangedFile() throws IOException, InterruptedException {
+        Path cacheDir = Files.createTempDirectory("verdict-cache");
+        Path implDir = Files.createTempDirectory("impls");
+        try {
+            Files.writeString(implDir.resolve("impl0.py"),
+                    "def func0(intval):\n    return intval");
+            Files.writeString(implDir.resolve("impl1.py"),
+                    "def func0(intval):\n    return intval + (intval == 2)");
+            Files.writeString(implDir.resolve("expected.py"), "results = [0, 1, 2, 3, 4]");
+
+            Tester tester = new Tester("func0", null, implDir.toString(), f0Tests);
+            tester.setVerdictCache(cacheDir.toString());
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(1), Set.of(), Set.of()),
+                    tester.runTests().getCaseToFiles());
+
+            // Change one implementation and re-run
+            Files.writeString(implDir.resolve("impl0.py"),
+                    "def func0(intval):\n    return -intval");
+            tester = new Tester("func0", null, implDir.toString(), f0Tests);
+            tester.setVerdictCache(cacheDir.toString());
+            TestResults results = tester.runTests();
+            assertEquals(List.of(Set.of(), Set.of(0), Set.of(0, 1), Set.of(0), Set.of(0)),
+                    results.getCaseToFiles());
+            assertEquals(f0Tests.size(),
+                    tester.getMetrics().timer("tester.process.spawn").getCount());
+        } finally {
+            deleteDirectory(cacheDir);
+            deleteDirectory(implDir);
+        }
+    }
+
+    /**
+     * Tests fail-fast mode, which records only the first failing case of each file.
+     */
+    @Test
+    @Order(71)
+    void testRunTestsFailFast() {
+        failFastHelper(ExecutionMode.PROCESS_PER_TEST, null,
+                List.of(Set.of(), Set.of(0, 1), Set.of(3, 4), Set.of(), Set.of(5)));
+    }
+
+    /**
+     * Tests fail-fast mode with batched execution.
+     */
+    @Test
+    @Order(72)
+    void testRunTestsFailFastBatched() {
+        failFastHelper(ExecutionMode.BATCHED, null,
+                List.of(Set.of(), Set.of(0, 1), Set.of(3, 4), Set.of(), Set.of(5)));
+    }
+
+    /**
+     * Tests fail-fast mode with a pool of workers.
+     */
+    @Test
+    @Order(73)
+    void testRunTestsFailFastWorkerPool() {
+        failFastHelper(ExecutionMode.WORKER_POOL, null,
+                List.of(Set.of(), Set.of(0, 1), Set.of(3, 4), Set.of(), Set.of(5)));
+    }
+
+    /**
+     * Tests fail-fast mode with the test cases run in reverse order, which changes the
+     * case that each file fails first.
+     */
+    @Test
+    @Order(74)
+    void testRunTestsFailFastReversed() {
+        failFastHelper(ExecutionMode.PROCESS_PER_TEST, List.of(4, 3, 2, 1, 0),
+                List.of(Set.of(), Set.of(), Set.of(0), Set.of(3), Set.of(1, 4, 5)));
+    }
+
+    /**
+     * Tests fail-fast mode with batched execution, with the test cases run in reverse
+     * order.
+     */
+    @Test
+    @Order(75)
+    void testRunTestsFailFastReversedBatched() {
+        failFastHelper(ExecutionMode.BATCHED, List.of(4, 3, 2, 1, 0),
+                List.of(Set.of(), Set.of(), Set.of(0), Set.of(3), Set.of(1, 4, 5)));
+    }
+
+    /**
+     * Tests that a case order that isn't a permutation of the test case indices is
+     * rejected.
+     */
+    @Test
+    @Order(76)
+    void testInvalidCaseOrder() {
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/f0oneRight", f0Tests);
+        assertThrows(IllegalArgumentException.class,
+                () -> tester.setCaseOrder(List.of(0, 1, 2, 3)));
+        assertThrows(IllegalArgumentException.class,
+                () -> tester.setCaseOrder(List.of(0, 1, 2, 3, 3)));
+        assertThrows(IllegalArgumentException.class,
+                () -> tester.setCaseOrder(List.of(0, 1, 2, 3, 5)));
+    }
+
+    /**
+     * Tests computing the expected results and running the tests on an argument whose
+     * string representation is far longer than a single command-line argument may be;
+     * the processes only receive the index of the test case, so this works in every
+     * mode.
+     */
+    @Test
+    @Order(77)
+    void testLargeArgument() throws IOException, InterruptedException {
+        List<PyIntObj> elems = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            elems.add(new PyIntObj(i));
+        }
+        List<TestCase> tests = List.of(new TestCase(List.of(new PyListObj<>(elems))));
+        String implDir = "f0oneRight";
+        try {
+            writeSolContents(0);
+            for (ExecutionMode mode : ExecutionMode.values()) {
+                Tester tester = new Tester("func0", userDir +
+                        "/src/test/rice/test/pyfiles/sols/func0sol.py", userDir +
+                        "/src/test/rice/test/pyfiles/" + implDir, tests);
+                tester.setExecutionMode(mode);
+                assertEquals(List.of(elems.toString()), tester.computeExpectedResults());
+                assertEquals(List.of(Set.of()), tester.runTests().getCaseToFiles());
+            }
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
+    /**
+     * Tests running a mix of passing and failing tests on multiple implementations of a
+     * function that takes one simple argument using a fork server; checks caseToFiles.
+     */
+    @Test
+    @Order(78)
+    void testRunTestsForkServerMixed() {
+        runTestsHelper("func0", f0Tests, "f0multipleMixed",
+                "results = [0, 1, 2, 3, 4]", Set.of(0, 1),
+                List.of(Set.of(0), Set.of(1), Set.of(0), Set.of(1), Set.of(0)), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.FORK_SERVER));
+    }
+
+    /**
+     * Tests running tests using a fork server on malformed implementations, all of
+     * which should fail every test.
+     */
+    @Test
+    @Order(79)
+    void testRunTestsForkServerMalformed() {
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            expected.add(Set.of(0, 1, 2));
+        }
+        runTestsHelper("func3", f3Tests, "f3malformed",
+                f3resultStr, Set.of(0, 1, 2), expected, 1,
+                tester -> tester.setExecutionMode(ExecutionMode.FORK_SERVER));
+    }
+
+    /**
+     * Tests running a test that exits the interpreter using a fork server; only the
+     * crashing case should fail.
+     */
+    @Test
+    @Order(80)
+    void testRunTestsForkServerCrash() {
+        runTestsHelper("func0", f0Tests, "f0oneCrashes",
+                "results = [0, 1, 2, 3, 4]", Set.of(0),
+                List.of(Set.of(), Set.of(), Set.of(0), Set.of(), Set.of()), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.FORK_SERVER));
+    }
+
+    /**
+     * Tests running a test that loops forever using a fork server with a time limit.
+     */
+    @Test
+    @Order(81)
+    void testRunTestsTimeoutForkServer() {
+        timeoutHelper(ExecutionMode.FORK_SERVER);
+    }
+
+    /**
+     * Tests that each test case run by a fork server sees a fresh copy of the
+     * implementation, so an implementation that mutates its own globals passes every
+     * test, just as it does when each case runs in its own process.
+     */
+    @Test
+    @Order(82)
+    void testRunTestsForkServerIsolation() {
+        List<Set<Integer>> expected =
+                List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of());
+        runTestsHelper("func0", f0Tests, "f0oneMutates",
+                "results = [0, 1, 2, 3, 4]", Set.of(), expected, 1);
+        runTestsHelper("func0", f0Tests, "f0oneMutates",
+                "results = [0, 1, 2, 3, 4]", Set.of(), expected, 1,
+                tester -> tester.setExecutionMode(ExecutionMode.FORK_SERVER));
+    }
+
+    /**
+     * Tests that an implementation that mutates its own globals sees the mutations of
+     * earlier test cases in batched mode, which (unlike FORK_SERVER) shares one copy
+     * of the implementation across test cases.
+     */
+    @Test
+    @Order(83)
+    void testRunTestsBatchedSharesState() {
+        runTestsHelper("func0", f0Tests, "f0oneMutates",
+                "results = [0, 1, 2, 3, 4]", Set.of(0),
+                List.of(Set.of(), Set.of(0), Set.of(0), Set.of(0), Set.of(0)), 1,
+                tester -> tester.setExecutionMode(ExecutionMode.BATCHED));
+    }
+
+    /**
+     * Tests fail-fast mode using a fork server.
+     */
+    @Test
+    @Order(84)
+    void testRunTestsFailFastForkServer() {
+        failFastHelper(ExecutionMode.FORK_SERVER, List.of(4, 3, 2, 1, 0),
+                List.of(Set.of(), Set.of(), Set.of(0), Set.of(3), Set.of(1, 4, 5)));
+    }
+
+    /**
+     * Tests running a test that allocates far more memory than the memory limit with each
+     * test case in its own process; only that case should fail, and it should be reported
+     * as a limit breach rather than a timeout.
+     */
+    @Test
+    @Order(85)
+    void testRunTestsMemoryLimit() {
+        memoryLimitHelper(ExecutionMode.PROCESS_PER_TEST);
+    }
+
+    /**
+     * Tests running a test that allocates far more memory than the memory limit using a
+     * worker pool; only that case should fail, and it should be reported as a limit
+     * breach rather than a timeout.
+     */
+    @Test
+    @Order(86)
+    void testRunTestsMemoryLimitWorkerPool() {
+        memoryLimitHelper(ExecutionMode.WORKER_POOL);
+    }
+
+    /**
+     * Tests running a test that allocates far more memory than the memory limit in
+     * batched mode; only that case should fail, and it should be reported as a limit
+     * breach rather than a timeout.
+     */
+    @Test
+    @Order(87)
+    void testRunTestsMemoryLimitBatched() {
+        memoryLimitHelper(ExecutionMode.BATCHED);
+    }
+
+    /**
+     * Tests running a test that allocates far more memory than the memory limit using a
+     * fork server; only that case should fail, and it should be reported as a limit
+     * breach rather than a timeout.
+     */
+    @Test
+    @Order(88)
+    void testRunTestsMemoryLimitForkServer() {
+        memoryLimitHelper(ExecutionMode.FORK_SERVER);
+    }
+
+    /**
+     * Tests running a test that loops forever under a CPU time limit with each test case
+     * in its own process; only that case should fail, and it should be reported as a
+     * limit breach rather than a timeout.
+     */
+    @Test
+    @Order(89)
+    void testRunTestsCpuLimit() {
+        cpuLimitHelper(ExecutionMode.PROCESS_PER_TEST);
+    }
+
+    /**
+     * Tests running a test that loops forever under a CPU time limit using a worker pool;
+     * only that case should fail, and it should be reported as a limit breach rather than
+     * a timeout.
+     */
+    @Test
+    @Order(90)
+    void testRunTestsCpuLimitWorkerPool() {
+        cpuLimitHelper(ExecutionMode.WORKER_POOL);
+    }
+
+    /**
+     * Tests running a test that loops forever under a CPU time limit in batched mode;
+     * only that case should fail, and it should be reported as a limit breach rather than
+     * a timeout.
+     */
+    @Test
+    @Order(91)
+    void testRunTestsCpuLimitBatched() {
+        cpuLimitHelper(ExecutionMode.BATCHED);
+    }
+
+    /**
+     * Tests running a test that loops forever under a CPU time limit using a fork server;
+     * only that case should fail, and it should be reported as a limit breach rather than
+     * a timeout.
+     */
+    @Test
+    @Order(92)
+    void testRunTestsCpuLimitForkServer() {
+        cpuLimitHelper(ExecutionMode.FORK_SERVER);
+    }
+
+    /**
+     * Tests computing the expected results and running the tests with each test case in
+     * its own process with a separate working directory; the implementation directory
+     * must not be modified.
+     */
+    @Test
+    @Order(93)
+    void testRunTestsWorkDir() {
+        workDirHelper(ExecutionMode.PROCESS_PER_TEST);
+    }
+
+    /**
+     * Tests computing the expected results and running the tests using a worker pool with a
+     * separate working directory; the implementation directory must not be modified.
+     */
+    @Test
+    @Order(94)
+    void testRunTestsWorkDirWorkerPool() {
+        workDirHelper(ExecutionMode.WORKER_POOL);
+    }
+
+    /**
+     * Tests computing the expected results and running the tests in batched mode with a
+     * separate working directory; the implementation directory must not be modified.
+     */
+    @Test
+    @Order(95)
+    void testRunTestsWorkDirBatched() {
+        workDirHelper(ExecutionMode.BATCHED);
+    }
+
+    /**
+     * Tests computing the expected results and running the tests using a fork server with a
+     * separate working directory; the implementation directory must not be modified.
+     */
+    @Test
+    @Order(96)
+    void testRunTestsWorkDirForkServer() {
+        workDirHelper(ExecutionMode.FORK_SERVER);
+    }
+
+    /**
+     * Tests that two Testers with different expected results can test the same
+     * implementations at once, as long as each has its own working directory.
+     */
+    @Test
+    @Order(97)
+    void testRunTestsConcurrentWorkDirs() throws Exception {
+        String implDirPath =
+                userDir + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic";
+        Path workDir1 = Files.createTempDirectory("work");
+        Path workDir2 = Files.createTempDirectory("work");
+        try {
+            Files.writeString(workDir1.resolve("expected.py"), "results = [0, 1, 2, 3, 4]");
+            Files.writeString(workDir2.resolve("expected.py"), "results = [0, 0, 0, 0, 0]");
+            Tester tester1 = new Tester("func0", null, implDirPath, f0Tests);
+            tester1.setWorkDir(workDir1.toString());
+            Tester tester2 = new Tester("func0", null, implDirPath, f0Tests);
+            tester2.setWorkDir(workDir2.toString());
+
+            // Run both Testers at the same time
+            TestResults[] results = new TestResults[2];
+            Thread thread = new Thread(() -> {
+                try {
+                    results[1] = tester2.runTests();
+                } catch (IOException | InterruptedException e) {
+                    e.printStackTrace();
+                }
+            });
+            thread.start();
+            results[0] = tester1.runTests();
+            thread.join();
+
+            assertEquals(List.of(Set.of(), Set.of(0, 1), Set.of(0, 1, 3, 4), Set.of(3),
+                    Set.of(1, 4, 5)), results[0].getCaseToFiles());
+            Set<Integer> all = Set.of(0, 1, 2, 3, 4, 5);
+            assertEquals(List.of(Set.of(), all, all, all, all), results[1].getCaseToFiles());
+        } finally {
+            deleteDirectory(workDir1);
+            deleteDirectory(workDir2);
+        }
+    }
+
+    /**
+     * Tests running the tests with a bytecode cache: the implementations must be
+     * compiled into the cache (and not next to the implementations), and the results of
+     * a second run that reuses the cache must be the same.
+     */
+    @Test
+    @Order(98)
+    void testRunTestsBytecodeCache() throws IOException {
+        String implDir = "f0multipleMixedDeterministic";
+        Path cacheDir = Files.createTempDirectory("bytecode");
+        try {
+            List<Set<Integer>> expected = List.of(Set.of(), Set.of(0, 1),
+                    Set.of(0, 1, 3, 4), Set.of(3), Set.of(1, 4, 5));
+            for (int run = 0; run < 2; run++) {
+                runTestsHelper("func0", f0Tests, implDir, "results = [0, 1, 2, 3, 4]",
+                        Set.of(), expected, 1,
+                        tester -> tester.setBytecodeCache(cacheDir.toString()));
+            }
+
+            // Each of the six implementations was compiled into the cache
+            try (var paths = Files.walk(cacheDir)) {
+                assertEquals(6, paths.filter(path -> path.getFileName().toString()
+                        .startsWith("impl")).count());
+            }
+            assertFalse(listFiles(Paths.get(userDir, "/src/test/rice/test/pyfiles/" +
+                    implDir)).stream().anyMatch(path -> path.startsWith("__pycache__/impl")));
+        } finally {
+            deleteDirectory(cacheDir);
+        }
+    }
+
+    /**
+     * Tests that neither an implementation nor the expected results are run from stale
+     * bytecode when using a bytecode cache, even if they change without changing their
+     * size or modification time.
+     */
+    @Test
+    @Order(99)
+    void testRunTestsBytecodeCacheNotStale() throws IOException, InterruptedException {
+        Path cacheDir = Files.createTempDirectory("bytecode");
+        Path implDir = Files.createTempDirectory("impls");
+        try {
+            Path implPath = implDir.resolve("impl0.py");
+            Path expectedPath = implDir.resolve("expected.py");
+            Files.writeString(implPath, "def func0(intval):\n    return intval + 0");
+            Files.writeString(expectedPath, "results = [0, 1, 2, 3, 4]");
+            Tester tester = new Tester("func0", null, implDir.toString(), f0Tests);
+            tester.setBytecodeCache(cacheDir.toString());
+            assertEquals(Set.of(), tester.runTests().getWrongSet());
+
+            // Change both files without changing their sizes or modification times
+            FileTime implTime = Files.getLastModifiedTime(implPath);
+            FileTime expectedTime = Files.getLastModifiedTime(expectedPath);
+            Files.writeString(implPath, "def func0(intval):\n    return intval + 1");
+            Files.writeString(expectedPath, "results = [1, 2, 3, 4, 5]");
+            Files.setLastModifiedTime(implPath, implTime);
+            Files.setLastModifiedTime(expectedPath, expectedTime);
+
+            tester = new Tester("func0", null, implDir.toString(), f0Tests);
+            tester.setBytecodeCache(cacheDir.toString());
+            assertEquals(Set.of(), tester.runTests().getWrongSet());
+        } finally {
+            deleteDirectory(cacheDir);
+            deleteDirectory(implDir);
+        }
+    }
+
+    /**
+     * Tests computing the expected results in binary form and then running the tests
+     * with each test case in its own process.
+     */
+    @Test
+    @Order(100)
+    void testRunTestsBinaryExpected() {
+        binaryExpectedHelper(ExecutionMode.PROCESS_PER_TEST);
+    }
+
+    /**
+     * Tests computing the expected results in binary form and then running the tests
+     * using a worker pool.
+     */
+    @Test
+    @Order(101)
+    void testRunTestsBinaryExpectedWorkerPool() {
+        binaryExpectedHelper(ExecutionMode.WORKER_POOL);
+    }
+
+    /**
+     * Tests computing the expected results in binary form and then running the tests
+     * in batched mode.
+     */
+    @Test
+    @Order(102)
+    void testRunTestsBinaryExpectedBatched() {
+        binaryExpectedHelper(ExecutionMode.BATCHED);
+    }
+
+    /**
+     * Tests computing the expected results in binary form and then running the tests
+     * using a fork server.
+     */
+    @Test
+    @Order(103)
+    void testRunTestsBinaryExpectedForkServer() {
+        binaryExpectedHelper(ExecutionMode.FORK_SERVER);
+    }
+
+    /**
+     * Tests that the outcome of each test case is recorded when each test case runs in
+     * its own process.
+     */
+    @Test
+    @Order(104)
+    void testRunTestsOutcomes() {
+        outcomesHelper(ExecutionMode.PROCESS_PER_TEST);
+    }
+
+    /**
+     * Tests that the outcome of each test case is recorded when running the tests using
+     * a worker pool.
+     */
+    @Test
+    @Order(105)
+    void testRunTestsOutcomesWorkerPool() {
+        outcomesHelper(ExecutionMode.WORKER_POOL);
+    }
+
+    /**
+     * Tests that the outcome of each test case is recorded when running the tests in
+     * batched mode.
+     */
+    @Test
+    @Order(106)
+    void testRunTestsOutcomesBatched() {
+        outcomesHelper(ExecutionMode.BATCHED);
+    }
+
+    /**
+     * Tests that the outcome of each test case is recorded when running the tests using
+     * a fork server.
+     */
+    @Test
+    @Order(107)
+    void testRunTestsOutcomesForkServer() {
+        outcomesHelper(ExecutionMode.FORK_SERVER);
+    }
+
+    /**
+     * Tests that a file shard must be split along the implementations.
+     */
+    @Test
+    @Order(108)
+    void testSetFileShardWrongAxis() {
+        Tester tester = new Tester("func0", "", "", f0Tests);
+        assertThrows(IllegalArgumentException.class,
+                () -> tester.setFileShard(new ShardSpec(1, 2, ShardSpec.Axis.CASES)));
+    }
+
+    /**
+     * Tests that a verdict cache populated under one time limit isn't used under
+     * another, since a test case that passed under a long time limit may time out under
+     * a shorter one: every implementation should be re-run.
+     */
+    @Test
+    @Order(109)
+    void testRunTestsVerdictCacheTimeoutChanged() throws IOException {
+        Path cacheDir = Files.createTempDirectory("verdict-cache");
+        try {
+            List<Set<Integer>> expected = List.of(Set.of(), Set.of(0, 1),
+                    Set.of(0, 1, 3, 4), Set.of(3), Set.of(1, 4, 5));
+            runTestsHelper("func0", f0Tests, "f0multipleMixedDeterministic",
+                    "results = [0, 1, 2, 3, 4]", Set.of(), expected, 1, tester -> {
+                        tester.setVerdictCache(cacheDir.toString());
+                        tester.setTimeout(60000);
+                    });
+            Metrics metrics = new Metrics();
+            runTestsHelper("func0", f0Tests, "f0multipleMixedDeterministic",
+                    "results = [0, 1, 2, 3, 4]", Set.of(), expected, 1, tester -> {
+                        tester.setVerdictCache(cacheDir.toString());
+                        tester.setTimeout(30000);
+                        tester.setMetrics(metrics);
+                    });
+            assertEquals(6 * f0Tests.size(),
+                    metrics.timer("tester.process.spawn").getCount());
+        } finally {
+            deleteDirectory(cacheDir);
+        }
+    }
+
+    /**
+     * Tests that the outcomes of a run served from the verdict cache are the same as
+     * those of a run without the cache, in both the normal and fail-fast modes.
+     */
+    @Test
+    @Order(110)
+    void testRunTestsVerdictCachedOutcomes() throws IOException, InterruptedException {
+        Path cacheDir = Files.createTempDirectory("verdict-cache");
+        Path implDir = Files.createTempDirectory("impls");
+        try {
+            Files.writeString(implDir.resolve("impl0.py"), "import os\n\n" +
+                    "def func0(intval):\n" +
+                    "    if intval == 1:\n        return -1\n" +
+                    "    if intval == 2:\n        raise ValueError()\n" +
+                    "    if intval == 3:\n        os._exit(1)\n" +
+                    "    return intval");
+            Files.writeString(implDir.resolve("expected.py"), "results = [0, 1, 2, 3, 4]");
+
+            // Populate the cache with a full run
+            Tester tester = new Tester("func0", null, implDir.toString(), f0Tests);
+            tester.setVerdictCache(cacheDir.toString());
+            tester.runTests();
+
+            for (boolean failFast : new boolean[]{false, true}) {
+                tester = new Tester("func0", null, implDir.toString(), f0Tests);
+                tester.setFailFast(failFast);
+                TestResults cold = tester.runTests();
+
+                tester = new Tester("func0", null, implDir.toString(), f0Tests);
+                tester.setFailFast(failFast);
+                tester.setVerdictCache(cacheDir.toString());
+                TestResults warm = tester.runTests();
+                assertEquals(0, tester.getMetrics().timer("tester.process.spawn").getCount());
+
+                for (int i = 0; i < f0Tests.size(); i++) {
+                    TestOutcome coldOutcome = cold.getOutcomes().get(i, 0);
+                    TestOutcome warmOutcome = warm.getOutcomes().get(i, 0);
+                    if (coldOutcome == null) {
+                        assertNull(warmOutcome);
+                    } else {
+                        assertEquals(coldOutcome.kind(), warmOutcome.kind());
+                        assertEquals(coldOutcome.exceptionType(),
+                                warmOutcome.exceptionType());
+                    }
+                }
+                assertEquals(cold.getCaseToFiles(), warm.getCaseToFiles());
+                assertEquals(cold.getCaseToTimeouts(), warm.getCaseToTimeouts());
+                assertEquals(cold.getCaseToLimitBreaches(), warm.getCaseToLimitBreaches());
+            }
+        } finally {
+            deleteDirectory(cacheDir);
+            deleteDirectory(implDir);
+        }
+    }
+
+    /**
+     * Tests that an implementation named worker.py is neither overwritten by the pool
+     * of workers nor left out of grading.
+     */
+    @Test
+    @Order(111)
+    void testRunTestsImplNamedWorker() throws IOException, InterruptedException {
+        Path implDir = Files.createTempDirectory("impls");
+        try {
+            String impl = "def func0(intval):\n    return -1 if intval == 2 else intval";
+            Files.writeString(implDir.resolve("worker.py"), impl);
+            Files.writeString(implDir.resolve("expected.py"), "results = [0, 1, 2, 3, 4]");
+
+            Tester tester = new Tester("func0", null, implDir.toString(), f0Tests);
+            tester.setExecutionMode(ExecutionMode.WORKER_POOL);
+            TestResults results = tester.runTests();
+            assertEquals(Set.of(0), results.getWrongSet());
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(0), Set.of(), Set.of()),
+                    results.getCaseToFiles());
+            assertEquals(impl, Files.readString(implDir.resolve("worker.py")));
+        } finally {
+            deleteDirectory(implDir);
+        }
+    }
+
+    /**
+     * Tests that two Testers with different functions under test can compute their
+     * expected results from the same solution at once, as long as each has its own
+     * working directory, and that the solution file is left untouched.
+     */
+    @Test
+    @Order(112)
+    void testComputeExpectedResultsConcurrentWorkDirs() throws Exception {
+        Path solDir = Files.createTempDirectory("sols");
+        Path workDir1 = Files.createTempDirectory("work");
+        Path workDir2 = Files.createTempDirectory("work");
+        try {
+            // The solution imports a module from its own directory
+            Files.writeString(solDir.resolve("scale.py"), "FACTOR = 2");
+            String solution = "from scale import FACTOR\n\n" +
+                    "def func0(intval):\n    return intval\n\n" +
+                    "def func1(intval):\n    return intval * FACTOR\n";
+            Path solPath = Files.writeString(solDir.resolve("sol.py"), solution);
+            Tester tester1 = new Tester("func0", solPath.toString(), userDir +
+                    "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic", f0Tests);
+            tester1.setWorkDir(workDir1.toString());
+            Tester tester2 = new Tester("func1", solPath.toString(), userDir +
+                    "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic", f0Tests);
+            tester2.setWorkDir(workDir2.toString());
+
+            // Compute both Testers' expected results at the same time
+            List<List<String>> results = new ArrayList<>(List.of(List.of(), List.of()));
+            Thread thread = new Thread(() -> {
+                try {
+                    results.set(1, tester2.computeExpectedResults());
+                } catch (IOException | InterruptedException e) {
+                    e.printStackTrace();
+                }
+            });
+            thread.start();
+            results.set(0, tester1.computeExpectedResults());
+            thread.join();
+
+            assertEquals(List.of("0", "1", "2", "3", "4"), results.get(0));
+            assertEquals(List.of("0", "2", "4", "6", "8"), results.get(1));
+            assertEquals(solution, Files.readString(solPath));
+        } finally {
+            deleteDirectory(solDir);
+            deleteDirectory(workDir1);
+            deleteDirectory(workDir2);
+        }
+    }
+
+    /**
+     * Tests that the expected results cache notices an edit to a solution below its own
+     * "import sys" line, whether the footer is written to the solution itself or to a
+     * separate working directory, and that rewriting the footer in place keeps the rest
+     * of the solution intact.
+     */
+    @Test
+    @Order(113)
+    void testComputeExpectedResultsSolutionImportsSys() throws Exception {
+        for (boolean isolated : new boolean[]{false, true}) {
+            Path solDir = Files.createTempDirectory("sols");
+            Path cacheDir = Files.createTempDirectory("expected-cache");
+            Path workDir = Files.createTempDirectory("work");
+            try {
+                Path solPath = solDir.resolve("sol.py");
+                for (int offset = 0; offset < 2; offset++) {
+                    String solution = "import sys\n\n" +
+                            "def func0(intval):\n    return intval + " + offset + "\n";
+                    Files.writeString(solPath, solution);
+                    Tester tester = new Tester("func0", solPath.toString(), userDir +
+                            "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic",
+                            f0Tests);
+                    tester.setExpectedResultsCache(cacheDir.toString());
+                    if (isolated) {
+                        tester.setWorkDir(workDir.toString());
+                    }
+                    List<String> expected = new ArrayList<>();
+                    for (int i = 0; i < f0Tests.size(); i++) {
+                        expected.add(String.valueOf(i + offset));
+                    }
+                    assertEquals(expected, tester.computeExpectedResults());
+
+                    // Writing the footer again replaces it
+                    tester.computeExpectedResults();
+                    String contents = Files.readString(solPath);
+                    assertTrue(contents.startsWith(solution));
+                    assertEquals(isolated ? 0 : 1,
+                            contents.split("# ---- Tester footer", -1).length - 1);
+                }
+            } finally {
+                deleteDirectory(solDir);
+                deleteDirectory(cacheDir);
+                deleteDirectory(workDir);
+            }
+        }
+    }
+
     /**
      * Sets up the test cases for function f0, which takes one simple argument.
      */
@@ -994,6 +2148,23 @@ class TesterTest {
      * @param expected the expected (expected) results
      */
     private static void expectedHelper(String funcName, List<TestCase> tests, String solName, List<String> expected) {
+        expectedHelper(funcName, tests, solName, expected, tester -> {});
+    }
+
+    /**
+     * Helper function for testing the computeExpectedResults() function on a Tester that
+     * has been configured (e.g. to run the solution in batches) before computing the
+     * expected results.
+     *
+     * @param funcName  the name of the function under test
+     * @param tests     the set of tests to be run
+     * @param solName   the filename of the reference solution, which can be found in the
+     *                  test.rice.test.pyfiles.sols package
+     * @param expected  the expected (expected) results
+     * @param configure a function that configures the Tester before running it
+     */
+    private static void expectedHelper(String funcName, List<TestCase> tests, String solName,
+                                       List<String> expected, Consumer<Tester> configure) {
         int solNum = Integer.parseInt(String.valueOf(funcName.charAt(funcName.length() - 1)));
 
         // Note that this is hard-coded to use the same directory for its expected.py output regardless of which
@@ -1002,6 +2173,7 @@ class TesterTest {
         Tester tester = new Tester(funcName, userDir +
                 "/src/test/rice/test/pyfiles/sols/" + solName, userDir +
                 "/src/test/rice/test/pyfiles/f0oneRight", tests);
+        configure.accept(tester);
         try {
             // Compute the actual results and compare to the expected
             writeSolContents(solNum);
@@ -1030,6 +2202,26 @@ class TesterTest {
         writer.close();
     }
 
+    /**
+     * Helper function for deleting a directory along with all of its contents.
+     *
+     * @param dir the directory to be deleted
+     * @throws IOException if a deletion operation fails
+     */
+    private static void deleteDirectory(Path dir) throws IOException {
+        File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    deleteDirectory(file.toPath());
+                } else {
+                    Files.delete(file.toPath());
+                }
+            }
+        }
+        Files.delete(dir);
+    }
+
     /**
      * Helper function for testing the runTests() function; instantiates a Tester object,
      * fakes computation of the expected results, gets the actual results, and compares
@@ -1047,8 +2239,53 @@ class TesterTest {
     private static void runTestsHelper(String funcName, List<TestCase> tests, String implDir,
                                 String solResults, Set<Integer> expWrongSet, List<Set<Integer>> expResults,
                                 int outputToCheck) {
+        runTestsHelper(funcName, tests, implDir, solResults, expWrongSet, expResults,
+                outputToCheck, tester -> {});
+    }
+
+    /**
+     * Helper function for testing the runTests() function on a Tester that has been
+     * configured (e.g. with a non-default execution mode) before running the tests.
+     *
+     * @param funcName      name of the function under test
+     * @param tests         the set of tests to be run
+     * @param implDir       the path to the directory containing the buggy implementations
+     * @param solResults    the expected contents of expected.py, assuming
+     *                      computeExpectedResults() is correct
+     * @param expWrongSet   the expected wrongSet
+     * @param expResults    the expected caseToFile list
+     * @param outputToCheck an integer representing which output to check
+     * @param configure     a function that configures the Tester before running it
+     */
+    private static void runTestsHelper(String funcName, List<TestCase> tests, String implDir,
+                                String solResults, Set<Integer> expWrongSet, List<Set<Integer>> expResults,
+                                int outputToCheck, Consumer<Tester> configure) {
+        runTestsHelper(funcName, tests, implDir, solResults, expWrongSet, expResults,
+                outputToCheck, 1, configure);
+    }
+
+    /**
+     * Helper function for testing the runTests() function on a Tester that tests
+     * multiple implementations concurrently and has been configured before running the
+     * tests.
+     *
+     * @param funcName      name of the function under test
+     * @param tests         the set of tests to be run
+     * @param implDir       the path to the directory containing the buggy implementations
+     * @param solResults    the expected contents of expected.py, assuming
+     *                      computeExpectedResults() is correct
+     * @param expWrongSet   the expected wrongSet
+     * @param expResults    the expected caseToFile list
+     * @param outputToCheck an integer representing which output to check
+     * @param concurrency   the maximum number of units of work to run at once
+     * @param configure     a function that configures the Tester before running it
+     */
+    private static void runTestsHelper(String funcName, List<TestCase> tests, String implDir,
+                                String solResults, Set<Integer> expWrongSet, List<Set<Integer>> expResults,
+                                int outputToCheck, int concurrency, Consumer<Tester> configure) {
         Tester tester = new Tester(funcName, null,
-                userDir + "/src/test/rice/test/pyfiles/" + implDir, tests);
+                userDir + "/src/test/rice/test/pyfiles/" + implDir, tests, concurrency);
+        configure.accept(tester);
         try {
             // Generate the expected.py file (to fake computing the expected results
             // without creating a dependency on computeExpectedResults())
@@ -1078,6 +2315,286 @@ class TesterTest {
         }
     }
 
+    /**
+     * Helper function for testing runTests() with a time limit on an implementation that
+     * loops forever on the second test case; checks that the test case counts as a
+     * failure, that it's reported as a timeout, and that the remaining cases still run.
+     *
+     * @param mode the execution mode to be tested
+     */
+    private static void timeoutHelper(ExecutionMode mode) {
+        String implDir = "f0oneLoops";
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/" + implDir, f0Tests);
+        tester.setExecutionMode(mode);
+        tester.setTimeout(1000);
+        try {
+            FileWriter writer = new FileWriter(userDir +
+                    "/src/test/rice/test/pyfiles/" + implDir + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            TestResults results = tester.runTests();
+            List<Set<Integer>> expected =
+                    List.of(Set.of(), Set.of(0), Set.of(), Set.of(), Set.of());
+            assertEquals(expected, results.getCaseToFiles());
+            assertEquals(expected, results.getCaseToTimeouts());
+            assertEquals(Set.of(0), results.getWrongSet());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
+    /**
+     * Helper function for testing runTests() with a memory limit on an implementation
+     * that tries to allocate 1 GB on test case 1.
+     *
+     * @param mode the execution mode to be tested
+     */
+    private static void memoryLimitHelper(ExecutionMode mode) {
+        limitHelper(mode, "f0oneHogsMemory",
+                tester -> tester.setMemoryLimit(256L * 1024 * 1024));
+    }
+
+    /**
+     * Helper function for testing runTests() with a CPU time limit on an implementation
+     * that loops forever on test case 1. A much longer time limit is also set, as a
+     * backstop.
+     *
+     * @param mode the execution mode to be tested
+     */
+    private static void cpuLimitHelper(ExecutionMode mode) {
+        limitHelper(mode, "f0oneLoops", tester -> {
+            tester.setCpuLimit(1);
+            tester.setTimeout(30000);
+        });
+    }
+
+    /**
+     * Helper function for testing runTests() with resource limits on an implementation
+     * that exceeds them on test case 1 (and only that case).
+     *
+     * @param mode      the execution mode to be tested
+     * @param implDir   the name of the implementation directory
+     * @param setLimits a function that sets the resource limits on the Tester
+     */
+    private static void limitHelper(ExecutionMode mode, String implDir,
+                                    Consumer<Tester> setLimits) {
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/" + implDir, f0Tests);
+        tester.setExecutionMode(mode);
+        setLimits.accept(tester);
+        try {
+            FileWriter writer = new FileWriter(userDir +
+                    "/src/test/rice/test/pyfiles/" + implDir + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            TestResults results = tester.runTests();
+            List<Set<Integer>> expected =
+                    List.of(Set.of(), Set.of(0), Set.of(), Set.of(), Set.of());
+            assertEquals(expected, results.getCaseToFiles());
+            assertEquals(expected, results.getCaseToLimitBreaches());
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()),
+                    results.getCaseToTimeouts());
+            assertEquals(Set.of(0), results.getWrongSet());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
+    /**
+     * Helper function for testing that runTests() records the outcome of each test case,
+     * on an implementation that passes one test case and fails each of the others in a
+     * different way: a wrong result, an exception, a crash, and a timeout.
+     *
+     * @param mode the execution mode to be tested
+     */
+    private static void outcomesHelper(ExecutionMode mode) {
+        String implDir = "f0oneOutcomes";
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/" + implDir, f0Tests);
+        tester.setExecutionMode(mode);
+        tester.setTimeout(1000);
+        try {
+            FileWriter writer = new FileWriter(userDir +
+                    "/src/test/rice/test/pyfiles/" + implDir + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            TestResults results = tester.runTests();
+            assertEquals(List.of(Set.of(), Set.of(0), Set.of(0), Set.of(0), Set.of(0)),
+                    results.getCaseToFiles());
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of(0)),
+                    results.getCaseToTimeouts());
+
+            OutcomeTable outcomes = results.getOutcomes();
+            assertEquals(5, outcomes.getNumCases());
+            assertEquals(1, outcomes.getNumFiles());
+            assertEquals(TestOutcome.Kind.PASS, outcomes.get(0, 0).kind());
+            assertTrue(outcomes.get(0, 0).elapsedNanos() >= 0);
+            assertEquals(TestOutcome.Kind.WRONG, outcomes.get(1, 0).kind());
+            assertEquals(TestOutcome.Kind.ERROR, outcomes.get(2, 0).kind());
+            assertEquals("ValueError", outcomes.get(2, 0).exceptionType());
+            assertEquals(TestOutcome.Kind.CRASH, outcomes.get(3, 0).kind());
+            assertEquals(TestOutcome.Kind.TIMEOUT, outcomes.get(4, 0).kind());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
+    /**
+     * Helper function for testing computeExpectedResults() and runTests() with a
+     * separate working directory; checks that the results are correct, that the
+     * generated files are written to the working directory, and that the implementation
+     * directory is left exactly as it was.
+     *
+     * @param mode the execution mode to be tested
+     */
+    private static void workDirHelper(ExecutionMode mode) {
+        Path implDir = Paths.get(userDir,
+                "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic");
+        Path workDir = null;
+        try {
+            writeSolContents(0);
+            List<String> before = listFiles(implDir);
+            workDir = Files.createTempDirectory("work");
+            Tester tester = new Tester("func0",
+                    userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py",
+                    implDir.toString(), f0Tests);
+            tester.setExecutionMode(mode);
+            tester.setWorkDir(workDir.toString());
+            tester.computeExpectedResults();
+            TestResults results = tester.runTests();
+
+            assertEquals(List.of(Set.of(), Set.of(0, 1), Set.of(0, 1, 3, 4), Set.of(3),
+                    Set.of(1, 4, 5)), results.getCaseToFiles());
+            assertTrue(Files.exists(workDir.resolve("expected.py")));
+            assertTrue(Files.exists(workDir.resolve("wrapper.py")));
+            assertEquals(before, listFiles(implDir));
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            if (workDir != null) {
+                try {
+                    deleteDirectory(workDir);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper function for testing computeExpectedResults() and runTests() with the
+     * expected results stored in binary form (in a separate working directory, so that
+     * the implementation directory isn't modified); checks the contents of the expected
+     * results table, and that the results of testing are correct.
+     *
+     * @param mode the execution mode to be tested
+     */
+    private static void binaryExpectedHelper(ExecutionMode mode) {
+        Path workDir = null;
+        try {
+            writeSolContents(0);
+            workDir = Files.createTempDirectory("work");
+            Tester tester = new Tester("func0",
+                    userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py",
+                    userDir + "/src/test/rice/test/pyfiles/f0multipleMixedDeterministic",
+                    f0Tests);
+            tester.setExecutionMode(mode);
+            tester.setWorkDir(workDir.toString());
+            tester.setBinaryExpectedResults(true);
+            List<String> expResults = tester.computeExpectedResults();
+            assertEquals(List.of("0", "1", "2", "3", "4"), expResults);
+            assertFalse(Files.exists(workDir.resolve("expected.py")));
+
+            // The table holds the number of results, their offsets, and their text
+            try (DataInputStream in = new DataInputStream(
+                    Files.newInputStream(workDir.resolve("expected.dat")))) {
+                assertEquals(5, in.readInt());
+                for (int i = 0; i <= 5; i++) {
+                    assertEquals(i, in.readLong());
+                }
+                assertEquals("01234", new String(in.readAllBytes()));
+            }
+
+            TestResults results = tester.runTests();
+            assertEquals(List.of(Set.of(), Set.of(0, 1), Set.of(0, 1, 3, 4), Set.of(3),
+                    Set.of(1, 4, 5)), results.getCaseToFiles());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            if (workDir != null) {
+                try {
+                    deleteDirectory(workDir);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper function which lists every file within a directory and its subdirectories.
+     *
+     * @param dir the directory to be listed
+     * @return the sorted paths of the files, relative to the directory
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<String> listFiles(Path dir) throws IOException {
+        try (var paths = Files.walk(dir)) {
+            return paths.map(path -> dir.relativize(path).toString()).sorted().toList();
+        }
+    }
+
+    /**
+     * Helper function for testing runTests() in fail-fast mode on a directory of
+     * implementations that each fail a different set of test cases; checks that the
+     * wrong set is complete, that caseToFiles holds each file's first failure, and that
+     * the results are marked as partial.
+     *
+     * @param mode       the execution mode to be tested
+     * @param caseOrder  the order in which to run the test cases, or null for index order
+     * @param expResults the expected caseToFiles list
+     */
+    private static void failFastHelper(ExecutionMode mode, List<Integer> caseOrder,
+                                       List<Set<Integer>> expResults) {
+        String implDir = "f0multipleMixedDeterministic";
+        Tester tester = new Tester("func0", null,
+                userDir + "/src/test/rice/test/pyfiles/" + implDir, f0Tests);
+        tester.setExecutionMode(mode);
+        tester.setFailFast(true);
+        tester.setCaseOrder(caseOrder);
+        try {
+            FileWriter writer = new FileWriter(userDir +
+                    "/src/test/rice/test/pyfiles/" + implDir + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            TestResults results = tester.runTests();
+            assertEquals(Set.of(0, 1, 3, 4, 5), results.getWrongSet());
+            assertEquals(expResults, results.getCaseToFiles());
+            assertTrue(results.isPartial());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
     /**
      * Deletes the file containing the expected results.
      *
@@ -0,0 +1,50 @@
+package test.rice.test;
+
+import main.rice.test.VirtualThreads;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the VirtualThreads class.
+ */
+class VirtualThreadsTest {
+
+    /**
+     * Tests that virtual threads are used exactly when the runtime supports them.
+     */
+    @Test
+    void testIsAvailable() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isAvailable());
+    }
+
+    /**
+     * Tests that an executor created by newExecutor() runs the tasks submitted to it.
+     */
+    @Test
+    void testNewExecutor() throws Exception {
+        ExecutorService executor = VirtualThreads.newExecutor(2);
+        try {
+            Future<Integer> result = executor.submit(() -> 6 * 7);
+            assertEquals(42, result.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that start() runs the task on a thread that won't keep the JVM alive.
+     */
+    @Test
+    void testStart() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread thread = VirtualThreads.start(ran::countDown);
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+        assertTrue(thread.isDaemon());
+    }
+}
@@ -0,0 +1,4 @@
+def func0(intval):
+    for i in range(1000):
+        print("debugging " * 100)
+    return intval
@@ -0,0 +1,4 @@
+def func0(intval):
+    if intval == 1:
+        return len(bytearray(1024 * 1024 * 1024))
+    return intval
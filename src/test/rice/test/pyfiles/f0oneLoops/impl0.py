@@ -0,0 +1,4 @@
+def func0(intval):
+    while intval == 1:
+        pass
+    return intval
@@ -0,0 +1,8 @@
+calls = 0
+
+def func0(intval):
+    global calls
+    calls += 1
+    if calls > 1:
+        return -1
+    return intval
@@ -0,0 +1,13 @@
+import os
+
+def func0(intval):
+    if intval == 1:
+        return -1
+    if intval == 2:
+        raise ValueError()
+    if intval == 3:
+        os._exit(1)
+    if intval == 4:
+        while True:
+            pass
+    return intval